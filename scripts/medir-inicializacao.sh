@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+#
+# Mede, para cada variante de inicialização, o tempo até o /actuator/health responder UP (startup-to-ready)
+# e o tempo até a primeira requisição de negócio ser respondida (time-to-first-request).
+#
+# Pré-requisitos: Postgres acessível pelas variáveis SPRING_DATASOURCE_* (ex.: docker compose up -d db) e o
+# jar gerado com o perfil de build otimizado:
+#
+#   ./mvnw -Pstartup package -DskipTests
+#   scripts/medir-inicializacao.sh
+#
+# O script repete os passos do Dockerfile (extração do jar e execução de treino do CDS) em um diretório
+# temporário, então os números correspondem aos da imagem.
+
+set -euo pipefail
+
+JAR=${JAR:-target/interview-0.0.1-SNAPSHOT.jar}
+PORTA=${PORTA:-8080}
+URL_REQUISICAO=${URL_REQUISICAO:-/api/simulacoes/cliente/1?size=10}
+REPETICOES=${REPETICOES:-3}
+JAVA=${JAVA:-java}
+
+DIR=$(mktemp -d)
+trap 'rm -rf "$DIR"' EXIT
+
+cp "$JAR" "$DIR/app.jar"
+(cd "$DIR" && "$JAVA" -Djarmode=tools -jar app.jar extract --destination extraido >/dev/null)
+cd "$DIR/extraido"
+
+echo "Gerando arquivo CDS (execução de treino)..."
+"$JAVA" -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+    -Dspring.aot.enabled=true -Dspring.profiles.active=prod \
+    -Dmigracoes.executar-na-inicializacao=false -Dspring.jpa.hibernate.ddl-auto=none \
+    -Dspring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false \
+    -jar app.jar >/dev/null 2>&1
+
+agora_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+medir() {
+    local nome=$1
+    shift
+    local total_pronto=0 total_primeira=0
+
+    for _ in $(seq 1 "$REPETICOES"); do
+        local inicio pronto primeira pid
+        inicio=$(agora_ms)
+        "$JAVA" "$@" -Dserver.port="$PORTA" -jar app.jar >/dev/null 2>&1 &
+        pid=$!
+
+        until curl -sf "http://localhost:$PORTA/actuator/health" 2>/dev/null | grep -q '"UP"'; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "A variante $nome encerrou antes de ficar pronta" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+        pronto=$(agora_ms)
+
+        curl -s -o /dev/null "http://localhost:$PORTA$URL_REQUISICAO"
+        primeira=$(agora_ms)
+
+        kill "$pid"
+        wait "$pid" 2>/dev/null || true
+
+        total_pronto=$(( total_pronto + pronto - inicio ))
+        total_primeira=$(( total_primeira + primeira - inicio ))
+    done
+
+    printf "%-22s %12d %16d\n" "$nome" $(( total_pronto / REPETICOES )) $(( total_primeira / REPETICOES ))
+}
+
+printf "%-22s %12s %16s\n" "variante" "pronto (ms)" "1a requisição (ms)"
+medir "padrao (sem perfil)"
+medir "prod" -Dspring.profiles.active=prod
+medir "prod + cds" -Dspring.profiles.active=prod -XX:SharedArchiveFile=app.jsa
+medir "prod + aot + cds" -Dspring.profiles.active=prod -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true
+medir "prod + aot + cds + lazy" -Dspring.profiles.active=prod,lazy -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true
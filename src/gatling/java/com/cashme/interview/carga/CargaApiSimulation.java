@@ -0,0 +1,165 @@
+package com.cashme.interview.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Carga sobre todos os endpoints de {@code ClienteController} e {@code SimulacaoController}, pensada para rodar
+ * contra a massa do {@code GeradorDadosSinteticos}. Os clientes são sorteados entre os já cadastrados, então os
+ * poucos clientes com muitas simulações aparecem na mesma proporção em que existem na massa.
+ * <p>
+ * Parâmetros por propriedade de sistema: {@code carga.url} (padrão {@code http://localhost:8080}),
+ * {@code carga.taxa} (novos usuários por segundo no cenário de consulta; os demais cenários são frações dela) e
+ * {@code carga.duracao} (segundos). O relatório do Gatling, no console e em {@code target/gatling}, traz vazão e
+ * percentis 50/75/95/99 por endpoint.
+ */
+public class CargaApiSimulation extends Simulation {
+
+    private static final String URL = System.getProperty("carga.url", "http://localhost:8080");
+    private static final double TAXA = Double.parseDouble(System.getProperty("carga.taxa", "20"));
+    private static final int DURACAO = Integer.getInteger("carga.duracao", 60);
+
+    private static final String SIMULACAO = """
+            {"valorSolicitado": 50000.00, "valorGarantia": 120000.00, "quantidadeMeses": 60,
+             "taxaJurosMensal": 1.25}""";
+
+    private static final String LOTE = Stream.generate(() -> SIMULACAO).limit(10)
+            .collect(Collectors.joining(",", "{\"simulacoes\": [", "]}"));
+
+    private static final String CLIENTE = """
+            {"cpf": "#{cpf}", "nome": "Cliente Carga", "endereco": {"rua": "Rua da Carga", "numero": "1",
+             "bairro": "Centro", "cep": "80000-000", "cidade": "Curitiba", "estado": "PR"}}""";
+
+    private final List<Long> clientes = carregarClientes();
+
+    private final Iterator<Map<String, Object>> sorteioClientes = Stream.generate(
+            () -> Map.<String, Object>of("clienteId", sortearCliente())).iterator();
+
+    private final Iterator<Map<String, Object>> sorteioLoteExportacao = Stream.generate(() -> Map.<String, Object>of(
+            "clienteIds", Stream.generate(this::sortearCliente).limit(5).toList().toString())).iterator();
+
+    private final Iterator<Map<String, Object>> novosCpfs = Stream.generate(() -> Map.<String, Object>of(
+            "cpf", "8" + String.format("%010d", ThreadLocalRandom.current().nextLong(10_000_000_000L)))).iterator();
+
+    private final ScenarioBuilder consulta = scenario("Consulta")
+            .feed(sorteioClientes)
+            .exec(http("GET /api/clientes/{id}").get("/api/clientes/#{clienteId}"))
+            .exec(http("GET /api/simulacoes/cliente/{id}")
+                    .get("/api/simulacoes/cliente/#{clienteId}?page=0&size=10")
+                    .check(jsonPath("$.content[0].id").optional().saveAs("simulacaoId")))
+            .doIf(sessao -> sessao.contains("simulacaoId")).then(
+                    exec(http("GET /api/simulacoes/{id}").get("/api/simulacoes/#{simulacaoId}")));
+
+    private final ScenarioBuilder escrita = scenario("Escrita")
+            .feed(sorteioClientes)
+            .exec(http("POST /api/simulacoes/cliente/{id}")
+                    .post("/api/simulacoes/cliente/#{clienteId}")
+                    .header("Idempotency-Key", "#{randomUuid()}")
+                    .body(StringBody(SIMULACAO)).asJson()
+                    .check(status().is(201)))
+            .exec(http("POST /api/simulacoes/cliente/{id}/lote")
+                    .post("/api/simulacoes/cliente/#{clienteId}/lote")
+                    .body(StringBody(LOTE)).asJson()
+                    .check(status().is(201)))
+            .exec(http("POST /api/simulacoes/cliente/{id}/simulacao-especifica")
+                    .post("/api/simulacoes/cliente/#{clienteId}/simulacao-especifica")
+                    .check(status().is(201)));
+
+    private final ScenarioBuilder exportacao = scenario("Exportação")
+            .feed(sorteioClientes)
+            .feed(sorteioLoteExportacao)
+            .exec(http("GET /api/simulacoes/cliente/{id}/export/txt")
+                    .get("/api/simulacoes/cliente/#{clienteId}/export/txt"))
+            .exec(http("GET /api/simulacoes/cliente/{id}/export/csv")
+                    .get("/api/simulacoes/cliente/#{clienteId}/export/csv"))
+            .exec(http("GET /api/simulacoes/cliente/{id}/export/csv?motor=copy")
+                    .get("/api/simulacoes/cliente/#{clienteId}/export/csv?motor=copy"))
+            .exec(http("POST /api/simulacoes/export/zip")
+                    .post("/api/simulacoes/export/zip")
+                    .body(StringBody("#{clienteIds}")).asJson());
+
+    private final ChainBuilder cadastrar = feed(novosCpfs)
+            .exec(http("POST /api/clientes")
+                    .post("/api/clientes")
+                    .body(StringBody(CLIENTE)).asJson()
+                    .check(status().is(201), jsonPath("$.id").saveAs("novoClienteId")));
+
+    private final ScenarioBuilder cadastro = scenario("Cadastro")
+            .exec(cadastrar)
+            .exec(http("PUT /api/clientes/{id}")
+                    .put("/api/clientes/#{novoClienteId}")
+                    .body(StringBody(CLIENTE)).asJson())
+            .exec(http("PATCH /api/clientes/{id}")
+                    .patch("/api/clientes/#{novoClienteId}")
+                    .body(StringBody("{\"nome\": \"Cliente Carga Alterado\"}"))
+                    .header("Content-Type", "application/merge-patch+json"))
+            .exec(http("DELETE /api/clientes/{id}")
+                    .delete("/api/clientes/#{novoClienteId}")
+                    .check(status().is(204)))
+            .exec(cadastrar)
+            .exec(http("DELETE /api/clientes/{id}?assincrono=true")
+                    .delete("/api/clientes/#{novoClienteId}?assincrono=true")
+                    .check(status().is(202)));
+
+    /** Listagens completas: custosas por natureza, rodam uma vez por execução. */
+    private final ScenarioBuilder varredura = scenario("Varredura")
+            .exec(http("GET /api/clientes").get("/api/clientes"))
+            .exec(http("GET /api/simulacoes").get("/api/simulacoes"));
+
+    private final HttpProtocolBuilder protocolo = http
+            .baseUrl(URL)
+            .acceptHeader("application/json, text/plain, text/csv, application/zip")
+            .shareConnections();
+
+    {
+        setUp(
+                consulta.injectOpen(rampUsersPerSec(1).to(TAXA).during(10), constantUsersPerSec(TAXA).during(DURACAO)),
+                escrita.injectOpen(constantUsersPerSec(TAXA / 4).during(DURACAO)),
+                cadastro.injectOpen(constantUsersPerSec(TAXA / 10).during(DURACAO)),
+                exportacao.injectOpen(constantUsersPerSec(TAXA / 20).during(DURACAO)),
+                varredura.injectOpen(atOnceUsers(1))
+        ).protocols(protocolo)
+                .assertions(global().failedRequests().percent().lt(1.0));
+    }
+
+    private long sortearCliente() {
+        return clientes.get(ThreadLocalRandom.current().nextInt(clientes.size()));
+    }
+
+    private static List<Long> carregarClientes() {
+        try {
+            HttpResponse<String> resposta = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(URL + "/api/clientes")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            List<Long> ids = new ArrayList<>();
+            for (JsonNode cliente : new ObjectMapper().readTree(resposta.body())) {
+                ids.add(cliente.get("id").asLong());
+            }
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("Nenhum cliente cadastrado em " + URL + "; rode o gerador antes");
+            }
+            return ids;
+        } catch (Exception e) {
+            throw new IllegalStateException("Não foi possível carregar os clientes de " + URL, e);
+        }
+    }
+}
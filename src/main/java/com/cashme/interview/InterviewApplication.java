@@ -2,8 +2,11 @@ package com.cashme.interview;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// As conexões R2DBC da leitura reativa são criadas por fragmento no LeituraReativaConfig; a ConnectionFactory
+// automática tiraria o DataSource JDBC do ar.
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class InterviewApplication {
 
 	public static void main(String[] args) {
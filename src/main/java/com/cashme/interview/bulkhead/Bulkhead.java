@@ -0,0 +1,125 @@
+package com.cashme.interview.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limite de concorrência de uma {@link ClasseCarga}. Até {@code concorrenciaMaxima} requisições executam ao mesmo
+ * tempo; as excedentes esperam até {@code esperaMaxima} numa fila de no máximo {@code filaMaxima} posições e, se
+ * ainda assim não houver vaga, são rejeitadas na hora — o cliente recebe 429 com {@code Retry-After}.
+ * <p>
+ * Métricas, todas com a tag {@code classe}: {@code bulkhead.ocupacao}, {@code bulkhead.limite},
+ * {@code bulkhead.saturacao} (ocupação / limite), {@code bulkhead.fila}, {@code bulkhead.espera} e
+ * {@code bulkhead.rejeicoes}.
+ */
+public class Bulkhead {
+
+    private final ClasseCarga classe;
+    private final int concorrenciaMaxima;
+    private final int filaMaxima;
+    private final Duration esperaMaxima;
+    private final Duration retryAfter;
+
+    private final Semaphore vagas;
+    private final AtomicInteger aguardando = new AtomicInteger();
+
+    private final Counter rejeicoes;
+    private final Timer espera;
+
+    public Bulkhead(ClasseCarga classe, int concorrenciaMaxima, int filaMaxima, Duration esperaMaxima,
+                    Duration retryAfter, MeterRegistry registry) {
+        this.classe = classe;
+        this.concorrenciaMaxima = concorrenciaMaxima;
+        this.filaMaxima = filaMaxima;
+        this.esperaMaxima = esperaMaxima;
+        this.retryAfter = retryAfter;
+        this.vagas = new Semaphore(concorrenciaMaxima, true);
+
+        String tag = classe.tag();
+        this.rejeicoes = Counter.builder("bulkhead.rejeicoes").tag("classe", tag)
+                .description("Requisições recusadas com 429 por falta de vaga")
+                .register(registry);
+        this.espera = Timer.builder("bulkhead.espera").tag("classe", tag)
+                .description("Tempo na fila até conseguir vaga")
+                .register(registry);
+        Gauge.builder("bulkhead.ocupacao", this, Bulkhead::ocupacao).tag("classe", tag).register(registry);
+        Gauge.builder("bulkhead.limite", this, b -> b.concorrenciaMaxima).tag("classe", tag).register(registry);
+        Gauge.builder("bulkhead.saturacao", this, b -> (double) b.ocupacao() / b.concorrenciaMaxima)
+                .tag("classe", tag).register(registry);
+        Gauge.builder("bulkhead.fila", aguardando, AtomicInteger::get).tag("classe", tag).register(registry);
+    }
+
+    public ClasseCarga getClasse() {
+        return classe;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public int getConcorrenciaMaxima() {
+        return concorrenciaMaxima;
+    }
+
+    /**
+     * Tenta ocupar uma vaga, esperando na fila se houver espaço. Cada entrada bem-sucedida deve ser seguida de
+     * exatamente uma chamada a {@link #sair()}.
+     *
+     * @return {@code false} se a requisição deve ser rejeitada
+     */
+    public boolean entrar() {
+        if (vagas.tryAcquire()) {
+            return true;
+        }
+        if (esperaMaxima.isZero() || aguardando.incrementAndGet() > filaMaxima) {
+            if (!esperaMaxima.isZero()) {
+                aguardando.decrementAndGet();
+            }
+            rejeicoes.increment();
+            return false;
+        }
+
+        long inicio = System.nanoTime();
+        boolean entrou = false;
+        try {
+            entrou = vagas.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            aguardando.decrementAndGet();
+        }
+        espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        if (!entrou) {
+            rejeicoes.increment();
+        }
+        return entrou;
+    }
+
+    public void sair() {
+        vagas.release();
+    }
+
+    /**
+     * Ocupa {@code quantidade} vagas para um trabalho interno que usa o mesmo pool de conexões das requisições da
+     * classe, esperando o tempo que for preciso. Enquanto isso, o excedente de requisições recebe 429 em vez de
+     * esperar por uma conexão. Deve ser seguida de {@link #liberar(int)} com a mesma quantidade.
+     */
+    public void reservar(int quantidade) throws InterruptedException {
+        vagas.acquire(quantidade);
+    }
+
+    public void liberar(int quantidade) {
+        vagas.release(quantidade);
+    }
+
+    int ocupacao() {
+        return concorrenciaMaxima - vagas.availablePermits();
+    }
+}
@@ -0,0 +1,94 @@
+package com.cashme.interview.bulkhead;
+
+import com.cashme.interview.fragmentacao.Fragmento;
+import com.cashme.interview.medicao.MedicaoSql;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import java.time.Duration;
+
+/**
+ * Um pool Hikari por {@link ClasseCarga}; o {@code DataSource} principal, montado pelo {@code FragmentacaoConfig},
+ * escolhe o pool pela classe da requisição. O pool {@code oltp} usa as propriedades
+ * {@code spring.datasource.hikari.*}; o {@code exportacao} copia a mesma configuração com tamanho próprio e conexões
+ * somente leitura. As métricas saem como {@code hikaricp.connections.*} com a tag {@code pool}.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourceOltp(DataSourceProperties propriedades) {
+        HikariDataSource dataSource = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ClasseCarga.OLTP.tag());
+        return dataSource;
+    }
+
+    /**
+     * Criado sem conectar, como o {@code oltp}: o pool só abre conexões no primeiro uso, e o contexto sobe sem banco
+     * na execução de treino da imagem.
+     */
+    @Bean
+    public HikariDataSource dataSourceExportacao(
+            @Qualifier("dataSourceOltp") HikariDataSource dataSourceOltp,
+            @Value("${bulkhead.exportacao.tamanho-pool:4}") int tamanhoPool) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSourceOltp.copyStateTo(dataSource);
+        dataSource.setPoolName(ClasseCarga.EXPORTACAO.tag());
+        dataSource.setMaximumPoolSize(tamanhoPool);
+        if (dataSource.getMinimumIdle() > tamanhoPool) {
+            dataSource.setMinimumIdle(tamanhoPool);
+        }
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public Bulkhead bulkheadOltp(
+            @Value("${bulkhead.oltp.concorrencia-maxima:150}") int concorrenciaMaxima,
+            @Value("${bulkhead.oltp.fila-maxima:50}") int filaMaxima,
+            @Value("${bulkhead.oltp.espera-maxima:1s}") Duration esperaMaxima,
+            @Value("${bulkhead.oltp.retry-after:1s}") Duration retryAfter,
+            MeterRegistry registry) {
+        return new Bulkhead(ClasseCarga.OLTP, concorrenciaMaxima, filaMaxima, esperaMaxima, retryAfter, registry);
+    }
+
+    @Bean
+    public Bulkhead bulkheadExportacao(
+            @Value("${bulkhead.exportacao.concorrencia-maxima:4}") int concorrenciaMaxima,
+            @Value("${bulkhead.exportacao.fila-maxima:8}") int filaMaxima,
+            @Value("${bulkhead.exportacao.espera-maxima:2s}") Duration esperaMaxima,
+            @Value("${bulkhead.exportacao.retry-after:5s}") Duration retryAfter,
+            MeterRegistry registry) {
+        return new Bulkhead(ClasseCarga.EXPORTACAO, concorrenciaMaxima, filaMaxima, esperaMaxima, retryAfter,
+                registry);
+    }
+
+    /**
+     * Leva a classe, o {@link Fragmento} e a {@link MedicaoSql} da requisição para o {@code applicationTaskExecutor},
+     * onde rodam os {@code StreamingResponseBody} das exportações e os métodos {@code @Async}.
+     */
+    @Bean
+    public TaskDecorator propagadorClasseCarga() {
+        return tarefa -> {
+            ClasseCarga classe = ClasseCarga.atual();
+            int fragmento = Fragmento.atual();
+            MedicaoSql medicao = MedicaoSql.atual();
+            return () -> {
+                ClasseCarga.definir(classe);
+                try {
+                    MedicaoSql.em(medicao, () -> Fragmento.em(fragmento, tarefa));
+                } finally {
+                    ClasseCarga.limpar();
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,135 @@
+package com.cashme.interview.bulkhead;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+
+/**
+ * Classifica cada requisição da API numa {@link ClasseCarga} e só a deixa seguir se o {@link Bulkhead} da classe
+ * tiver vaga; sem vaga, responde 429 com {@code Retry-After}. Respostas assíncronas ({@code StreamingResponseBody})
+ * seguram a vaga até o fim da escrita. Assinaturas de eventos ficam de fora: passam a maior parte do tempo paradas,
+ * sem thread nem conexão, e têm limite próprio.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Pattern EXPORTACAO_DO_CLIENTE =
+            Pattern.compile("^/api/simulacoes/cliente/\\d+/export/(txt|csv)$");
+    private static final String EXPORTACAO_ZIP = "/api/simulacoes/export/zip";
+    private static final String TODAS_AS_SIMULACOES = "/api/simulacoes";
+    private static final Pattern EVENTOS_DO_CLIENTE = Pattern.compile("^/api/simulacoes/cliente/\\d+/eventos$");
+
+    private final Map<ClasseCarga, Bulkhead> bulkheads = new EnumMap<>(ClasseCarga.class);
+
+    public BulkheadFilter(List<Bulkhead> bulkheads) {
+        bulkheads.forEach(bulkhead -> this.bulkheads.put(bulkhead.getClasse(), bulkhead));
+    }
+
+    static ClasseCarga classificar(String metodo, String uri) {
+        boolean get = HttpMethod.GET.matches(metodo);
+        if (get && (EXPORTACAO_DO_CLIENTE.matcher(uri).matches() || uri.equals(TODAS_AS_SIMULACOES))
+                || HttpMethod.POST.matches(metodo) && uri.equals(EXPORTACAO_ZIP)) {
+            return ClasseCarga.EXPORTACAO;
+        }
+        return ClasseCarga.OLTP;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return !uri.startsWith("/api/") || EVENTOS_DO_CLIENTE.matcher(uri).matches();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        ClasseCarga classe = classificar(request.getMethod(), request.getRequestURI());
+        Bulkhead bulkhead = bulkheads.get(classe);
+
+        if (bulkhead == null) {
+            executarComo(classe, request, response, chain);
+            return;
+        }
+        if (!bulkhead.entrar()) {
+            log.warn("Bulkhead {} saturado, recusando {} {}", classe, request.getMethod(), request.getRequestURI());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(bulkhead.getRetryAfter().toSeconds()));
+            response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+                    "Limite de requisições simultâneas de " + classe.tag() + " atingido");
+            return;
+        }
+
+        Runnable sair = saidaUnica(bulkhead);
+        try {
+            executarComo(classe, request, response, chain);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new LiberarAoConcluir(sair));
+            } else {
+                sair.run();
+            }
+        }
+    }
+
+    private static void executarComo(ClasseCarga classe, HttpServletRequest request, HttpServletResponse response,
+                                     FilterChain chain) throws ServletException, IOException {
+        ClasseCarga.definir(classe);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ClasseCarga.limpar();
+        }
+    }
+
+    private static Runnable saidaUnica(Bulkhead bulkhead) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return () -> {
+            if (liberada.compareAndSet(false, true)) {
+                bulkhead.sair();
+            }
+        };
+    }
+
+    private record LiberarAoConcluir(Runnable sair) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            sair.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            sair.run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            sair.run();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.cashme.interview.bulkhead;
+
+/**
+ * Classes de carga isoladas entre si: cada uma tem seu pool de conexões e seu limite de concorrência, para que
+ * exportações pesadas não disputem recursos com as consultas rápidas.
+ * <p>
+ * A classe da requisição em andamento fica numa {@link ThreadLocal} definida pelo {@link BulkheadFilter} e
+ * propagada para o {@code applicationTaskExecutor}; é por ela que o {@code DataSource} escolhe o pool.
+ */
+public enum ClasseCarga {
+
+    /** Consultas e escritas pontuais. É a classe de qualquer código fora de uma requisição classificada. */
+    OLTP,
+
+    /** Exportações e listagens completas, que leem muitas linhas e seguram a conexão por mais tempo. */
+    EXPORTACAO;
+
+    private static final ThreadLocal<ClasseCarga> ATUAL = new ThreadLocal<>();
+
+    public static ClasseCarga atual() {
+        ClasseCarga classe = ATUAL.get();
+        return classe != null ? classe : OLTP;
+    }
+
+    static void definir(ClasseCarga classe) {
+        ATUAL.set(classe);
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+
+    public String tag() {
+        return name().toLowerCase();
+    }
+}
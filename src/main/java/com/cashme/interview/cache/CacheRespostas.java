@@ -0,0 +1,268 @@
+package com.cashme.interview.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de respostas serializadas com TTL curto e limite de memória em bytes, com coalescência de
+ * carregamentos: requisições concorrentes para a mesma chave aguardam a carga já em andamento
+ * (single-flight) em vez de repetir consulta e serialização.
+ * <p>
+ * Cada entrada pode ser associada a um cliente para invalidação seletiva. Invalidações incrementam uma
+ * geração e desligam as cargas em andamento: uma carga iniciada antes de uma invalidação não é armazenada,
+ * e requisições que chegam depois dela não a aguardam, começam uma nova.
+ */
+@Component
+@Slf4j
+public class CacheRespostas {
+
+    private static final long SOBRECARGA_POR_ENTRADA = 64;
+
+    private final boolean habilitado;
+    private final long ttlNanos;
+    private final long tamanhoMaximo;
+    private final Duration esperaMaxima;
+
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(64, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<RespostaCacheada>> emAndamento = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    private long bytesEmUso;
+
+    private final Counter acertos;
+    private final Counter faltas;
+    private final Counter coalescidas;
+
+    public CacheRespostas(@Value("${cache.respostas.habilitado:true}") boolean habilitado,
+                          @Value("${cache.respostas.ttl:5s}") Duration ttl,
+                          @Value("${cache.respostas.tamanho-maximo:16MB}") DataSize tamanhoMaximo,
+                          @Value("${cache.respostas.espera-maxima:2s}") Duration esperaMaxima,
+                          MeterRegistry registry) {
+        this.habilitado = habilitado;
+        this.ttlNanos = ttl.toNanos();
+        this.tamanhoMaximo = tamanhoMaximo.toBytes();
+        this.esperaMaxima = esperaMaxima;
+
+        this.acertos = Counter.builder("cache.respostas.acertos").register(registry);
+        this.faltas = Counter.builder("cache.respostas.faltas").register(registry);
+        this.coalescidas = Counter.builder("cache.respostas.coalescidas")
+                .description("Requisições atendidas pela carga de outra requisição em andamento")
+                .register(registry);
+        Gauge.builder("cache.respostas.taxa.acertos", this, CacheRespostas::taxaAcertos).register(registry);
+        Gauge.builder("cache.respostas.bytes", this, CacheRespostas::bytesEmUso).register(registry);
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public RespostaCacheada buscar(String chave) {
+        synchronized (entradas) {
+            Entrada entrada = entradas.get(chave);
+            if (entrada != null && entrada.expirada(System.nanoTime())) {
+                remover(chave);
+                entrada = null;
+            }
+            if (entrada != null) {
+                acertos.increment();
+                return entrada.resposta();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Registra uma carga para a chave. Se já houver outra em andamento, o {@link Voo} retornado não é o
+     * líder e {@link Voo#aguardar()} devolve o resultado dela.
+     */
+    public Voo embarcar(String chave) {
+        CompletableFuture<RespostaCacheada> carga = new CompletableFuture<>();
+        CompletableFuture<RespostaCacheada> existente = emAndamento.putIfAbsent(chave, carga);
+        if (existente != null) {
+            return new Voo(chave, existente, false, geracao.get());
+        }
+        faltas.increment();
+        return new Voo(chave, carga, true, geracao.get());
+    }
+
+    /**
+     * Finaliza a carga do líder, liberando quem estiver aguardando. {@code resposta} nula indica que o
+     * resultado não é cacheável (erro, 404, ...) e faz os demais executarem a própria requisição.
+     */
+    public void pousar(Voo voo, Long clienteId, RespostaCacheada resposta) {
+        if (resposta != null) {
+            armazenar(voo, clienteId, resposta);
+        }
+        emAndamento.remove(voo.chave(), voo.carga());
+        voo.carga().complete(resposta);
+    }
+
+    public void invalidarCliente(Long clienteId) {
+        synchronized (entradas) {
+            invalidarCargas();
+            Iterator<Map.Entry<String, Entrada>> iterator = entradas.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Entrada> e = iterator.next();
+                if (clienteId.equals(e.getValue().clienteId())) {
+                    bytesEmUso -= e.getValue().tamanho();
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidarTudo() {
+        synchronized (entradas) {
+            invalidarCargas();
+            entradas.clear();
+            bytesEmUso = 0;
+        }
+    }
+
+    /**
+     * Invalida as entradas do cliente quando a transação corrente confirmar, para que uma leitura
+     * concorrente não recoloque no cache o estado anterior ao commit.
+     */
+    public void invalidarClienteAposCommit(Long clienteId) {
+        aposCommit(() -> invalidarCliente(clienteId));
+    }
+
+    public void invalidarTudoAposCommit() {
+        aposCommit(this::invalidarTudo);
+    }
+
+    private void aposCommit(Runnable invalidacao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidacao.run();
+                }
+            });
+        } else {
+            invalidacao.run();
+        }
+    }
+
+    /**
+     * Chamado com o lock de {@code entradas}, o mesmo de {@link #armazenar}: uma carga não é armazenada entre a
+     * mudança de geração e a remoção das entradas. As cargas desligadas continuam servindo quem já as aguarda.
+     */
+    private void invalidarCargas() {
+        geracao.incrementAndGet();
+        emAndamento.clear();
+    }
+
+    private void armazenar(Voo voo, Long clienteId, RespostaCacheada resposta) {
+        String chave = voo.chave();
+        long tamanho = resposta.corpo().length + chave.length() * 2L + SOBRECARGA_POR_ENTRADA;
+        if (tamanho > tamanhoMaximo / 8) {
+            return;
+        }
+        synchronized (entradas) {
+            if (voo.geracao() != geracao.get()) {
+                return;
+            }
+            remover(chave);
+            entradas.put(chave, new Entrada(resposta, clienteId, tamanho, System.nanoTime() + ttlNanos));
+            bytesEmUso += tamanho;
+
+            Iterator<Entrada> maisAntigas = entradas.values().iterator();
+            while (bytesEmUso > tamanhoMaximo && maisAntigas.hasNext()) {
+                bytesEmUso -= maisAntigas.next().tamanho();
+                maisAntigas.remove();
+            }
+        }
+    }
+
+    private void remover(String chave) {
+        Entrada removida = entradas.remove(chave);
+        if (removida != null) {
+            bytesEmUso -= removida.tamanho();
+        }
+    }
+
+    private double taxaAcertos() {
+        double total = acertos.count() + faltas.count() + coalescidas.count();
+        return total == 0 ? 0 : (acertos.count() + coalescidas.count()) / total;
+    }
+
+    private double bytesEmUso() {
+        synchronized (entradas) {
+            return bytesEmUso;
+        }
+    }
+
+    private record Entrada(RespostaCacheada resposta, Long clienteId, long tamanho, long expiraEm) {
+
+        boolean expirada(long agora) {
+            return agora - expiraEm > 0;
+        }
+    }
+
+    public final class Voo {
+
+        private final String chave;
+        private final CompletableFuture<RespostaCacheada> carga;
+        private final boolean lider;
+        private final long geracao;
+
+        private Voo(String chave, CompletableFuture<RespostaCacheada> carga, boolean lider, long geracao) {
+            this.chave = chave;
+            this.carga = carga;
+            this.lider = lider;
+            this.geracao = geracao;
+        }
+
+        public boolean isLider() {
+            return lider;
+        }
+
+        /**
+         * Aguarda a carga do líder. Retorna {@code null} se ela não gerou resposta cacheável, falhou ou
+         * passou da espera máxima; nesse caso quem chamou deve executar a própria requisição.
+         */
+        public RespostaCacheada aguardar() {
+            try {
+                RespostaCacheada resposta = carga.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+                if (resposta != null) {
+                    coalescidas.increment();
+                }
+                return resposta;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (Exception e) {
+                log.debug("Carga compartilhada da chave {} não concluída: {}", chave, e.toString());
+                return null;
+            }
+        }
+
+        String chave() {
+            return chave;
+        }
+
+        CompletableFuture<RespostaCacheada> carga() {
+            return carga;
+        }
+
+        long geracao() {
+            return geracao;
+        }
+    }
+}
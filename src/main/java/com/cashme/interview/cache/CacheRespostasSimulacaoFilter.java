@@ -0,0 +1,101 @@
+package com.cashme.interview.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Coloca o {@link CacheRespostas} na frente das leituras mais concorridas de simulações:
+ * {@code GET /api/simulacoes/{id}} e a primeira página de {@code GET /api/simulacoes/cliente/{clienteId}}.
+ * As demais requisições passam direto.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheRespostasSimulacaoFilter extends OncePerRequestFilter {
+
+    private static final Pattern SIMULACAO_POR_ID = Pattern.compile("^/api/simulacoes/(\\d+)$");
+    private static final Pattern SIMULACOES_DO_CLIENTE = Pattern.compile("^/api/simulacoes/cliente/(\\d+)$");
+
+    private final CacheRespostas cacheRespostas;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cacheRespostas.isHabilitado() || !HttpMethod.GET.matches(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String uri = request.getRequestURI();
+        String chave = null;
+        Long clienteId = null;
+
+        Matcher porId = SIMULACAO_POR_ID.matcher(uri);
+        Matcher doCliente = SIMULACOES_DO_CLIENTE.matcher(uri);
+        if (porId.matches()) {
+            chave = "simulacao:" + porId.group(1);
+        } else if (doCliente.matches() && primeiraPagina(request)) {
+            clienteId = Long.valueOf(doCliente.group(1));
+            String query = request.getQueryString();
+            chave = "cliente:" + clienteId + "?" + (query == null ? "" : query);
+        }
+
+        if (chave == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        RespostaCacheada cacheada = cacheRespostas.buscar(chave);
+        if (cacheada != null) {
+            escrever(response, cacheada);
+            return;
+        }
+
+        CacheRespostas.Voo voo = cacheRespostas.embarcar(chave);
+        if (!voo.isLider()) {
+            RespostaCacheada compartilhada = voo.aguardar();
+            if (compartilhada != null) {
+                escrever(response, compartilhada);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        RespostaCacheada gerada = null;
+        try {
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value() && !request.isAsyncStarted()) {
+                gerada = new RespostaCacheada(wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            cacheRespostas.pousar(voo, clienteId, gerada);
+        }
+    }
+
+    private static boolean primeiraPagina(HttpServletRequest request) {
+        String page = request.getParameter("page");
+        return page == null || page.equals("0");
+    }
+
+    private static void escrever(HttpServletResponse response, RespostaCacheada resposta) throws IOException {
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(resposta.contentType());
+        response.setContentLength(resposta.corpo().length);
+        response.getOutputStream().write(resposta.corpo());
+    }
+}
@@ -0,0 +1,7 @@
+package com.cashme.interview.cache;
+
+/**
+ * Corpo já serializado de uma resposta {@code 200 OK}, pronto para ser devolvido sem passar pelo controller.
+ */
+public record RespostaCacheada(String contentType, byte[] corpo) {
+}
@@ -0,0 +1,12 @@
+package com.cashme.interview.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Métodos {@code @Async} rodam no {@code applicationTaskExecutor} configurado pelo Spring Boot.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,53 @@
+package com.cashme.interview.config;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JSON já serializado de cada {@link com.cashme.interview.dto.SimulacaoResposta}, por ID. Simulações não são
+ * alteradas depois de criadas, então o conteúdo de um ID nunca fica desatualizado; o limite de entradas
+ * descarta as menos usadas.
+ */
+@Component
+public class CacheSerializacaoSimulacoes {
+
+    private final boolean habilitado;
+    private final Map<Long, SerializedString> entradas;
+
+    public CacheSerializacaoSimulacoes(@Value("${jackson.cache-simulacoes.habilitado:false}") boolean habilitado,
+                                       @Value("${jackson.cache-simulacoes.maximo-entradas:100000}") int maximoEntradas) {
+        this.habilitado = habilitado;
+        this.entradas = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SerializedString> eldest) {
+                return size() > maximoEntradas;
+            }
+        };
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    public SerializedString buscar(Long id) {
+        synchronized (entradas) {
+            return entradas.get(id);
+        }
+    }
+
+    public void armazenar(Long id, SerializedString json) {
+        synchronized (entradas) {
+            entradas.put(id, json);
+        }
+    }
+
+    public void limpar() {
+        synchronized (entradas) {
+            entradas.clear();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.cashme.interview.config;
+
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.cashme.interview.fragmentacao.Fragmentos;
+import com.cashme.interview.fragmentacao.VerificacaoSequencias;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class FlywayConfig {
+
+    /**
+     * Permite subir o contexto sem acessar o banco, como na execução de treino que gera o arquivo CDS da
+     * imagem. Com AOT, {@code spring.flyway.enabled} é avaliado no build e não pode ser desligado na execução.
+     * <p>
+     * As migrações rodam em cada fragmento, com os placeholders {@code fragmento} e {@code total_fragmentos}. Como a V7
+     * não roda de novo quando o total muda, em seguida as sequências de cada fragmento são conferidas
+     * ({@link VerificacaoSequencias}).
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${migracoes.executar-na-inicializacao:true}") boolean executar,
+            Fragmentos fragmentos) {
+        return flyway -> {
+            if (!executar) {
+                return;
+            }
+            for (int fragmento = 0; fragmento < fragmentos.total(); fragmento++) {
+                Map<String, String> placeholders = new HashMap<>(flyway.getConfiguration().getPlaceholders());
+                placeholders.put("fragmento", String.valueOf(fragmento));
+                placeholders.put("total_fragmentos", String.valueOf(fragmentos.total()));
+                HikariDataSource dataSource = fragmentos.pool(fragmento, ClasseCarga.OLTP);
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(dataSource)
+                        .placeholders(placeholders)
+                        .load()
+                        .migrate();
+                VerificacaoSequencias.verificar(fragmento, fragmentos.total(), dataSource);
+            }
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.cashme.interview.config;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Módulos registrados no {@code ObjectMapper} do Spring Boot.
+ */
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Troca a reflexão dos getters/construtores por acessos gerados via {@code LambdaMetafactory}.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    /**
+     * Reaproveita o JSON de simulações já serializadas quando {@code jackson.cache-simulacoes.habilitado=true}.
+     */
+    @Bean
+    public Module simulacaoPreSerializadaModule(CacheSerializacaoSimulacoes cache) {
+        return criarModuloPreSerializado(cache);
+    }
+
+    static Module criarModuloPreSerializado(CacheSerializacaoSimulacoes cache) {
+        SimpleModule module = new SimpleModule("SimulacaoPreSerializada");
+        if (!cache.isHabilitado()) {
+            return module;
+        }
+        module.setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public JsonSerializer<?> modifySerializer(SerializationConfig config, BeanDescription beanDesc,
+                                                      JsonSerializer<?> serializer) {
+                if (beanDesc.getBeanClass() == SimulacaoResposta.class) {
+                    return new SimulacaoPreSerializadaSerializer(serializer, cache);
+                }
+                return serializer;
+            }
+        });
+        return module;
+    }
+}
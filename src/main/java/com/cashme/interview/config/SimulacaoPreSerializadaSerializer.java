@@ -0,0 +1,81 @@
+package com.cashme.interview.config;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.ResolvableSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Envolve o serializer padrão de {@link SimulacaoResposta}: na primeira vez que um ID é serializado o JSON
+ * produzido é guardado no {@link CacheSerializacaoSimulacoes}, e nas seguintes é copiado direto para a saída.
+ */
+class SimulacaoPreSerializadaSerializer extends StdSerializer<SimulacaoResposta>
+        implements ContextualSerializer, ResolvableSerializer {
+
+    private static final JsonFactory FABRICA = new JsonFactory();
+
+    private final JsonSerializer<Object> padrao;
+    private final CacheSerializacaoSimulacoes cache;
+
+    @SuppressWarnings("unchecked")
+    SimulacaoPreSerializadaSerializer(JsonSerializer<?> padrao, CacheSerializacaoSimulacoes cache) {
+        super(SimulacaoResposta.class);
+        this.padrao = (JsonSerializer<Object>) padrao;
+        this.cache = cache;
+    }
+
+    @Override
+    public void serialize(SimulacaoResposta value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        if (value.id() == null) {
+            padrao.serialize(value, gen, provider);
+            return;
+        }
+
+        SerializedString json = cache.buscar(value.id());
+        if (json == null) {
+            StringWriter writer = new StringWriter(256);
+            try (JsonGenerator temporario = FABRICA.createGenerator(writer)) {
+                padrao.serialize(value, temporario, provider);
+            }
+            json = new SerializedString(writer.toString());
+            cache.armazenar(value.id(), json);
+        }
+        gen.writeRawValue(json);
+    }
+
+    @Override
+    public void serializeWithType(SimulacaoResposta value, JsonGenerator gen, SerializerProvider provider,
+                                  TypeSerializer typeSer) throws IOException {
+        padrao.serializeWithType(value, gen, provider, typeSer);
+    }
+
+    @Override
+    public void resolve(SerializerProvider provider) throws JsonMappingException {
+        if (padrao instanceof ResolvableSerializer resolvable) {
+            resolvable.resolve(provider);
+        }
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider provider, BeanProperty property)
+            throws JsonMappingException {
+        if (padrao instanceof ContextualSerializer contextual) {
+            JsonSerializer<?> contextualizado = contextual.createContextual(provider, property);
+            if (contextualizado != padrao) {
+                return new SimulacaoPreSerializadaSerializer(contextualizado, cache);
+            }
+        }
+        return this;
+    }
+}
@@ -1,12 +1,20 @@
 package com.cashme.interview.controller;
 
+import com.cashme.interview.dto.ClienteBusca;
+import com.cashme.interview.dto.ClienteResposta;
 import com.cashme.interview.model.Cliente;
 import com.cashme.interview.service.ClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -21,31 +29,79 @@ public class ClienteController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Cliente criarCliente(@Valid @RequestBody Cliente cliente) {
-        return clienteService.criarCliente(cliente);
+    public ClienteResposta criarCliente(@Valid @RequestBody Cliente cliente) {
+        return ClienteResposta.de(clienteService.criarCliente(cliente));
     }
 
     @GetMapping
-    public List<Cliente> listarTodos() {
-        return clienteService.listarTodos();
+    public List<ClienteResposta> listarTodos() {
+        return clienteService.listarTodos().stream()
+                .map(ClienteResposta::de)
+                .toList();
+    }
+
+    @GetMapping("/busca")
+    public Slice<ClienteBusca> buscar(
+            @RequestParam String termo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return clienteService.buscarClientes(termo, PageRequest.of(page, size));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Cliente> buscarPorId(@PathVariable Long id) {
-        return ResponseEntity.ok(clienteService.buscarPorId(id));
+    public ResponseEntity<ClienteResposta> buscarPorId(@PathVariable Long id) {
+        return comVersao(clienteService.buscarPorId(id));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Cliente> atualizarCliente(
+    public ResponseEntity<ClienteResposta> atualizarCliente(
             @PathVariable Long id,
             @Valid @RequestBody Cliente cliente) {
-        return ResponseEntity.ok(clienteService.atualizarCliente(id, cliente));
+        return comVersao(clienteService.atualizarCliente(id, cliente));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ClienteResposta> atualizarParcialmente(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode alteracoes) {
+        return comVersao(clienteService.atualizarParcialmente(id, alteracoes, versaoDoIfMatch(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deletarCliente(@PathVariable Long id) {
+    public ResponseEntity<Void> deletarCliente(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean assincrono) {
+        if (assincrono) {
+            clienteService.buscarPorId(id);
+            clienteService.deletarClienteEmLotes(id);
+            return ResponseEntity.accepted().build();
+        }
         clienteService.deletarCliente(id);
         return ResponseEntity.noContent().build();
     }
 
+    private static ResponseEntity<ClienteResposta> comVersao(Cliente cliente) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        if (cliente.getVersao() != null) {
+            resposta.eTag("\"" + cliente.getVersao() + "\"");
+        }
+        return resposta.body(ClienteResposta.de(cliente));
+    }
+
+    private static Long versaoDoIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        try {
+            return Long.valueOf(etag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match inválido: " + ifMatch);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.cashme.interview.controller;
+
+import com.cashme.interview.dto.ElegibilidadeResposta;
+import com.cashme.interview.elegibilidade.ElegibilidadeService;
+import com.cashme.interview.elegibilidade.ExecucaoElegibilidade;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/simulacoes")
+@RequiredArgsConstructor
+@Slf4j
+public class ElegibilidadeController {
+
+    private final ElegibilidadeService elegibilidadeService;
+
+    @PostMapping("/{id}/elegibilidade")
+    public ResponseEntity<ElegibilidadeResposta> avaliar(@PathVariable Long id) {
+        log.info("Avaliando elegibilidade da simulação ID: {}", id);
+        return ResponseEntity.ok(elegibilidadeService.avaliar(id));
+    }
+
+    @PostMapping("/elegibilidade")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ExecucaoElegibilidade avaliarTodas() {
+        log.info("Iniciando avaliação de elegibilidade de todas as simulações");
+        return elegibilidadeService.iniciarAvaliacaoEmMassa();
+    }
+
+    @GetMapping("/elegibilidade")
+    public ExecucaoElegibilidade buscarUltimaExecucao() {
+        return elegibilidadeService.buscarUltimaExecucao();
+    }
+}
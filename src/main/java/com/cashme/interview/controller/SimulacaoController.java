@@ -1,7 +1,14 @@
 package com.cashme.interview.controller;
 
+import com.cashme.interview.dto.LoteSimulacoes;
+import com.cashme.interview.dto.SimulacaoRequisicao;
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.eventos.EventosSimulacoes;
 import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.service.ExportacaoCsvCopy;
+import com.cashme.interview.service.RegistroIdempotencia;
 import com.cashme.interview.service.SimulacaoService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -13,6 +20,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,9 +32,12 @@ import java.util.List;
 public class SimulacaoController {
 
     private final SimulacaoService simulacaoService;
+    private final RegistroIdempotencia registroIdempotencia;
+    private final ExportacaoCsvCopy exportacaoCsvCopy;
+    private final EventosSimulacoes eventosSimulacoes;
 
     @GetMapping("/cliente/{clienteId}")
-    public ResponseEntity<Page<Simulacao>> listarPorCliente(
+    public ResponseEntity<Page<SimulacaoResposta>> listarPorCliente(
             @PathVariable Long clienteId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -40,7 +52,22 @@ public class SimulacaoController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<Simulacao> simulacoes = simulacaoService.listarPorCliente(clienteId, pageable);
 
-        return ResponseEntity.ok(simulacoes);
+        return ResponseEntity.ok(simulacoes.map(SimulacaoResposta::de));
+    }
+
+    /**
+     * Eventos {@code simulacao} com as simulações criadas para o cliente a partir de agora, no lugar de consultar
+     * a listagem periodicamente. O ID dos eventos é a posição, na ordem dos commits, até a qual o cliente já tem
+     * todas as simulações; com {@code Last-Event-ID}, envia antes as confirmadas depois dela. Uma simulação pode
+     * chegar de novo depois de uma reconexão e deve ser descartada pelo ID dela.
+     */
+    @GetMapping(value = "/cliente/{clienteId}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanhar(@PathVariable Long clienteId,
+                                 @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEventoId) {
+        log.info("Acompanhando simulações do cliente ID: {} a partir do evento {}", clienteId, ultimoEventoId);
+
+        return eventosSimulacoes.assinar(clienteId, () -> simulacaoService
+                .buscarNovasDoCliente(clienteId, ultimoEventoId, EventosSimulacoes.MAXIMO_REENVIO));
     }
 
     @GetMapping(value = "/cliente/{clienteId}/export/txt", produces = MediaType.TEXT_PLAIN_VALUE)
@@ -85,16 +112,62 @@ public class SimulacaoController {
                 .body(relatorio);
     }
 
+    /**
+     * Mesma exportação de {@link #exportarCsv(Long)}, gerada pelo {@code COPY} do Postgres quando a requisição
+     * traz {@code motor=copy}.
+     */
+    @GetMapping(value = "/cliente/{clienteId}/export/csv", params = "motor=copy", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportarCsvViaCopy(@PathVariable Long clienteId) {
+        log.info("Exportando simulações do cliente ID: {} em formato CSV via COPY", clienteId);
+
+        if (!simulacaoService.possuiSimulacoes(clienteId)) {
+            return ResponseEntity.noContent().build();
+        }
+
+        StreamingResponseBody corpo = saida -> exportacaoCsvCopy.exportar(clienteId, saida);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDispositionFormData("attachment", "simulacoes_cliente_" + clienteId + ".csv");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(corpo);
+    }
+
+    @PostMapping(value = "/export/zip", produces = "application/zip")
+    public ResponseEntity<StreamingResponseBody> exportarZip(
+            @RequestBody List<Long> clienteIds,
+            @RequestParam(defaultValue = "csv") String formato) {
+
+        List<Long> ids = simulacaoService.validarLoteExportacao(clienteIds);
+        boolean txt = formato.equalsIgnoreCase("txt");
+
+        log.info("Exportando simulações de {} clientes em ZIP ({})", ids.size(), txt ? "TXT" : "CSV");
+
+        StreamingResponseBody corpo = saida -> simulacaoService.exportarZip(ids, txt, saida);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDispositionFormData("attachment", "simulacoes_clientes.zip");
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(corpo);
+    }
+
     @GetMapping
-    public List<Simulacao> listarTodas() {
+    public List<SimulacaoResposta> listarTodas() {
         log.info("Listando todas as simulações");
-        return simulacaoService.listarTodas();
+        return simulacaoService.listarTodas().stream()
+                .map(SimulacaoResposta::de)
+                .toList();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Simulacao> buscarPorId(@PathVariable Long id) {
+    public ResponseEntity<SimulacaoResposta> buscarPorId(@PathVariable Long id) {
         log.info("Buscando simulação por ID: {}", id);
-        return ResponseEntity.ok(simulacaoService.buscarPorId(id));
+        return ResponseEntity.ok(SimulacaoResposta.de(simulacaoService.buscarPorId(id)));
     }
 
     @PostMapping("/cliente/{clienteId}/simulacao-especifica")
@@ -103,4 +176,34 @@ public class SimulacaoController {
         log.info("Criando simulação específica para cliente ID: {}", clienteId);
         return simulacaoService.criarSimulacaoEspecifica(clienteId);
     }
+
+    @PostMapping("/cliente/{clienteId}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public SimulacaoResposta criarSimulacao(
+            @PathVariable Long clienteId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody SimulacaoRequisicao requisicao) {
+
+        log.info("Criando simulação para cliente ID: {}", clienteId);
+        return registroIdempotencia.executar(chaveIdempotencia(idempotencyKey, clienteId), requisicao.normalizada(),
+                () -> SimulacaoResposta.de(simulacaoService.criarSimulacao(clienteId, requisicao)));
+    }
+
+    @PostMapping("/cliente/{clienteId}/lote")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<SimulacaoResposta> criarSimulacoesEmLote(
+            @PathVariable Long clienteId,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody LoteSimulacoes lote) {
+
+        log.info("Criando {} simulações para cliente ID: {}", lote.simulacoes().size(), clienteId);
+        return registroIdempotencia.executar(chaveIdempotencia(idempotencyKey, clienteId), lote.normalizado(),
+                () -> simulacaoService.criarSimulacoes(clienteId, lote.simulacoes()).stream()
+                        .map(SimulacaoResposta::de)
+                        .toList());
+    }
+
+    private static String chaveIdempotencia(String idempotencyKey, Long clienteId) {
+        return idempotencyKey == null ? null : clienteId + ":" + idempotencyKey;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.model.Dinheiro;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Escreve centavos ou pontos-base como número JSON com duas casas ({@code 300000.00}, {@code 2.00}), o mesmo
+ * formato que o {@code BigDecimal} de escala 2 produzia.
+ */
+public class CentesimosSerializer extends StdSerializer<Number> {
+
+    public CentesimosSerializer() {
+        super(Number.class);
+    }
+
+    @Override
+    public void serialize(Number centesimos, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(Dinheiro.formatar(centesimos.longValue()));
+    }
+}
@@ -0,0 +1,14 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.repository.ClienteEncontrado;
+
+/**
+ * Resultado da busca de clientes, sem endereço. A relevância vai de 0 a 1.
+ */
+public record ClienteBusca(Long id, String nome, String cpf, double relevancia) {
+
+    public static ClienteBusca de(ClienteEncontrado encontrado) {
+        return new ClienteBusca(encontrado.getId(), encontrado.getNome(), encontrado.getCpf(),
+                encontrado.getRelevancia());
+    }
+}
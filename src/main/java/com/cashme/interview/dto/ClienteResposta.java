@@ -0,0 +1,22 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.model.Cliente;
+
+/**
+ * Representação de leitura de um {@link Cliente}. As simulações não são incluídas: elas são consultadas
+ * paginadas em {@code /api/simulacoes/cliente/{clienteId}}.
+ */
+public record ClienteResposta(
+        Long id,
+        String cpf,
+        String nome,
+        EnderecoResposta endereco) {
+
+    public static ClienteResposta de(Cliente cliente) {
+        return new ClienteResposta(
+                cliente.getId(),
+                cliente.getCpf(),
+                cliente.getNome(),
+                EnderecoResposta.de(cliente.getEndereco()));
+    }
+}
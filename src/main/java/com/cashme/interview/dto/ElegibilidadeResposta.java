@@ -0,0 +1,16 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.elegibilidade.MotivoInelegibilidade;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.List;
+
+/**
+ * Resultado das regras para uma simulação. {@code ltv} é o percentual do valor solicitado sobre a garantia.
+ */
+public record ElegibilidadeResposta(
+        Long simulacaoId,
+        boolean elegivel,
+        @JsonSerialize(using = CentesimosSerializer.class) long ltv,
+        List<MotivoInelegibilidade> motivos) {
+}
@@ -0,0 +1,27 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.model.Endereco;
+
+public record EnderecoResposta(
+        Long id,
+        String rua,
+        String numero,
+        String bairro,
+        String cep,
+        String cidade,
+        String estado) {
+
+    public static EnderecoResposta de(Endereco endereco) {
+        if (endereco == null) {
+            return null;
+        }
+        return new EnderecoResposta(
+                endereco.getId(),
+                endereco.getRua(),
+                endereco.getNumero(),
+                endereco.getBairro(),
+                endereco.getCep(),
+                endereco.getCidade(),
+                endereco.getEstado());
+    }
+}
@@ -0,0 +1,18 @@
+package com.cashme.interview.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record LoteSimulacoes(
+        @NotEmpty @Size(max = 1000) List<@Valid SimulacaoRequisicao> simulacoes) {
+
+    /**
+     * @see SimulacaoRequisicao#normalizada()
+     */
+    public LoteSimulacoes normalizado() {
+        return new LoteSimulacoes(simulacoes.stream().map(SimulacaoRequisicao::normalizada).toList());
+    }
+}
@@ -0,0 +1,34 @@
+package com.cashme.interview.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Parâmetros de uma nova simulação. Sem {@code dataHora}, é usado o momento da criação.
+ */
+public record SimulacaoRequisicao(
+        LocalDateTime dataHora,
+        @NotNull @DecimalMin("0.01") @Digits(integer = 13, fraction = 2) BigDecimal valorSolicitado,
+        @NotNull @DecimalMin("0.01") @Digits(integer = 13, fraction = 2) BigDecimal valorGarantia,
+        @NotNull @Min(1) @Max(600) Integer quantidadeMeses,
+        @NotNull @DecimalMin("0.00") @Digits(integer = 3, fraction = 2) BigDecimal taxaJurosMensal) {
+
+    /**
+     * A mesma requisição com os valores sem zeros à direita, para que {@code 1500.0} e {@code 1500.00} sejam iguais
+     * na comparação de retentativas.
+     */
+    public SimulacaoRequisicao normalizada() {
+        return new SimulacaoRequisicao(dataHora, semZeros(valorSolicitado), semZeros(valorGarantia), quantidadeMeses,
+                semZeros(taxaJurosMensal));
+    }
+
+    private static BigDecimal semZeros(BigDecimal valor) {
+        return valor == null ? null : valor.stripTrailingZeros();
+    }
+}
@@ -0,0 +1,28 @@
+package com.cashme.interview.dto;
+
+import com.cashme.interview.model.Simulacao;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Valores em centavos e taxa em pontos-base, como na entidade; no JSON saem como decimais de duas casas.
+ */
+public record SimulacaoResposta(
+        Long id,
+        LocalDateTime dataHora,
+        @JsonSerialize(using = CentesimosSerializer.class) long valorSolicitado,
+        @JsonSerialize(using = CentesimosSerializer.class) long valorGarantia,
+        Integer quantidadeMeses,
+        @JsonSerialize(using = CentesimosSerializer.class) int taxaJurosMensal) {
+
+    public static SimulacaoResposta de(Simulacao simulacao) {
+        return new SimulacaoResposta(
+                simulacao.getId(),
+                simulacao.getDataHora(),
+                simulacao.getValorSolicitadoCentavos(),
+                simulacao.getValorGarantiaCentavos(),
+                simulacao.getQuantidadeMeses(),
+                simulacao.getTaxaJurosMensalPontosBase());
+    }
+}
@@ -0,0 +1,164 @@
+package com.cashme.interview.elegibilidade;
+
+import com.cashme.interview.bulkhead.Bulkhead;
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.cashme.interview.fragmentacao.Fragmentos;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Avalia a tabela {@code simulacoes} inteira em pipeline: uma conexão percorre a tabela com um cursor
+ * ({@code fetchSize} de {@code elegibilidade.massa.tamanho-lote}) e monta lotes, que {@code paralelismo} threads
+ * avaliam e gravam, cada lote numa instrução. No máximo {@code 2 × paralelismo} lotes ficam em memória; o cursor
+ * espera quando os avaliadores estão atrasados.
+ * <p>
+ * Cada fragmento tem seu pipeline, e os fragmentos são avaliados ao mesmo tempo. Usa o pool de exportação, para não
+ * disputar conexões com as requisições OLTP: o cursor ocupa uma conexão e cada avaliador outra, em cada fragmento.
+ * Durante toda a execução, essas {@code paralelismo + 1} conexões ficam reservadas como vagas do {@link Bulkhead} de
+ * exportação, para que as exportações excedentes recebam 429 em vez de esperar por uma conexão do pool. Uma
+ * configuração que não deixe ao menos uma vaga e uma conexão para as exportações impede a subida. As conexões desse
+ * pool são somente leitura por padrão, e as de gravação liberam a escrita explicitamente.
+ * <p>
+ * Todas as linhas de uma execução recebem o mesmo {@code avaliada_em}, o início dela.
+ */
+@Component
+@Slf4j
+public class AvaliacaoEmMassa {
+
+    private static final String LER_SIMULACOES = """
+            select id, (valor_solicitado * 100)::bigint, (valor_garantia * 100)::bigint, quantidade_meses,
+                   (taxa_juros_mensal * 100)::integer
+            from simulacoes
+            """;
+
+    private final Fragmentos fragmentos;
+    private final RegrasElegibilidade regras;
+    private final Bulkhead bulkheadExportacao;
+    private final int tamanhoLote;
+    private final int paralelismo;
+
+    public AvaliacaoEmMassa(Fragmentos fragmentos,
+                            RegrasElegibilidade regras,
+                            @Qualifier("bulkheadExportacao") Bulkhead bulkheadExportacao,
+                            @Value("${bulkhead.exportacao.tamanho-pool:4}") int tamanhoPoolExportacao,
+                            @Value("${elegibilidade.massa.tamanho-lote:10000}") int tamanhoLote,
+                            @Value("${elegibilidade.massa.paralelismo:2}") int paralelismo) {
+        int conexoes = paralelismo + 1;
+        if (conexoes >= tamanhoPoolExportacao || conexoes >= bulkheadExportacao.getConcorrenciaMaxima()) {
+            throw new IllegalStateException("elegibilidade.massa.paralelismo=" + paralelismo + " ocupa " + conexoes
+                    + " conexões de exportação por fragmento, e elas precisam ficar abaixo de "
+                    + "bulkhead.exportacao.tamanho-pool (" + tamanhoPoolExportacao + ") e de "
+                    + "bulkhead.exportacao.concorrencia-maxima (" + bulkheadExportacao.getConcorrenciaMaxima()
+                    + ") para que as exportações continuem atendidas durante a avaliação");
+        }
+        this.fragmentos = fragmentos;
+        this.regras = regras;
+        this.bulkheadExportacao = bulkheadExportacao;
+        this.tamanhoLote = tamanhoLote;
+        this.paralelismo = paralelismo;
+    }
+
+    @Async
+    public void executar(ExecucaoElegibilidade execucao) {
+        long inicio = System.nanoTime();
+        AtomicReference<Throwable> falha = new AtomicReference<>();
+        try {
+            bulkheadExportacao.reservar(paralelismo + 1);
+            try (ExecutorService pipelines = Executors.newFixedThreadPool(fragmentos.total(),
+                    Thread.ofPlatform().name("elegibilidade-fragmento-", 0).factory())) {
+                for (int fragmento = 0; fragmento < fragmentos.total(); fragmento++) {
+                    DataSource dataSource = fragmentos.pool(fragmento, ClasseCarga.EXPORTACAO);
+                    String prefixo = "elegibilidade-" + fragmento + "-";
+                    pipelines.execute(() -> avaliarFragmento(dataSource, prefixo, execucao, falha));
+                }
+            } finally {
+                bulkheadExportacao.liberar(paralelismo + 1);
+            }
+            if (falha.get() != null) {
+                throw falha.get();
+            }
+            execucao.concluir();
+            Duration duracao = Duration.ofNanos(System.nanoTime() - inicio);
+            log.info("Elegibilidade avaliada para {} simulações ({} elegíveis) em {} s",
+                    execucao.getAvaliadas(), execucao.getElegiveis(), duracao.toSeconds());
+        } catch (Throwable e) {
+            execucao.falhar(e);
+            log.error("Avaliação de elegibilidade em massa interrompida após {} simulações",
+                    execucao.getAvaliadas(), e);
+        }
+    }
+
+    private void avaliarFragmento(DataSource dataSource, String prefixo, ExecucaoElegibilidade execucao,
+                                  AtomicReference<Throwable> falha) {
+        try (ExecutorService avaliadores = Executors.newFixedThreadPool(paralelismo,
+                Thread.ofPlatform().name(prefixo, 1).factory())) {
+            percorrer(dataSource, execucao, avaliadores, new Semaphore(2 * paralelismo), falha);
+        } catch (Throwable e) {
+            falha.compareAndSet(null, e);
+        }
+    }
+
+    private void percorrer(DataSource dataSource, ExecucaoElegibilidade execucao, ExecutorService avaliadores,
+                           Semaphore lotesEmAndamento, AtomicReference<Throwable> falha)
+            throws SQLException, InterruptedException {
+        LocalDateTime avaliadaEm = execucao.getInicio();
+        try (Connection conexao = dataSource.getConnection()) {
+            // O PgJDBC só usa cursor, em vez de trazer tudo para a memória, fora do autocommit.
+            conexao.setAutoCommit(false);
+            try (PreparedStatement consulta = conexao.prepareStatement(LER_SIMULACOES)) {
+                consulta.setFetchSize(tamanhoLote);
+                try (ResultSet linhas = consulta.executeQuery()) {
+                    LoteElegibilidade lote = new LoteElegibilidade(tamanhoLote);
+                    while (falha.get() == null && linhas.next()) {
+                        lote.adicionar(linhas.getLong(1), linhas.getLong(2), linhas.getLong(3), linhas.getInt(4),
+                                linhas.getInt(5));
+                        if (lote.cheio()) {
+                            despachar(dataSource, lote, avaliadaEm, execucao, avaliadores, lotesEmAndamento,
+                                    falha);
+                            lote = new LoteElegibilidade(tamanhoLote);
+                        }
+                    }
+                    if (falha.get() == null && lote.tamanho() > 0) {
+                        despachar(dataSource, lote, avaliadaEm, execucao, avaliadores, lotesEmAndamento,
+                                falha);
+                    }
+                }
+            } finally {
+                conexao.rollback();
+            }
+        }
+    }
+
+    private void despachar(DataSource dataSource, LoteElegibilidade lote, LocalDateTime avaliadaEm,
+                           ExecucaoElegibilidade execucao, ExecutorService avaliadores, Semaphore lotesEmAndamento,
+                           AtomicReference<Throwable> falha) throws InterruptedException {
+        lotesEmAndamento.acquire();
+        avaliadores.execute(() -> {
+            try (Connection conexao = dataSource.getConnection()) {
+                conexao.setReadOnly(false);
+                lote.avaliar(regras);
+                int gravadas = GravadorElegibilidade.gravar(conexao, lote, avaliadaEm);
+                execucao.contar(gravadas, lote.elegiveis());
+            } catch (Throwable e) {
+                falha.compareAndSet(null, e);
+            } finally {
+                lotesEmAndamento.release();
+            }
+        });
+    }
+}
@@ -0,0 +1,75 @@
+package com.cashme.interview.elegibilidade;
+
+import com.cashme.interview.dto.ElegibilidadeResposta;
+import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.service.SimulacaoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+@RequiredArgsConstructor
+public class ElegibilidadeService {
+
+    private final SimulacaoService simulacaoService;
+    private final RegrasElegibilidade regras;
+    private final AvaliacaoEmMassa avaliacaoEmMassa;
+    private final DataSource dataSource;
+
+    private final AtomicReference<ExecucaoElegibilidade> ultimaExecucao = new AtomicReference<>();
+
+    /**
+     * Avalia uma simulação e grava o resultado, como a avaliação em massa faria para ela.
+     */
+    public ElegibilidadeResposta avaliar(Long simulacaoId) {
+        Simulacao simulacao = simulacaoService.buscarPorId(simulacaoId);
+
+        LoteElegibilidade lote = new LoteElegibilidade(1);
+        lote.adicionar(simulacao.getId(), simulacao.getValorSolicitadoCentavos(),
+                simulacao.getValorGarantiaCentavos(), simulacao.getQuantidadeMeses(),
+                simulacao.getTaxaJurosMensalPontosBase());
+        lote.avaliar(regras);
+        gravar(lote);
+
+        return new ElegibilidadeResposta(simulacaoId, lote.motivos[0] == 0, lote.ltvs[0],
+                MotivoInelegibilidade.de(lote.motivos[0]));
+    }
+
+    /**
+     * Dispara a avaliação de todas as simulações em segundo plano. Só uma execução roda por vez.
+     */
+    public ExecucaoElegibilidade iniciarAvaliacaoEmMassa() {
+        ExecucaoElegibilidade anterior = ultimaExecucao.get();
+        ExecucaoElegibilidade nova = new ExecucaoElegibilidade();
+        if ((anterior != null && anterior.emAndamento()) || !ultimaExecucao.compareAndSet(anterior, nova)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Já existe uma avaliação de elegibilidade em massa em andamento");
+        }
+        avaliacaoEmMassa.executar(nova);
+        return nova;
+    }
+
+    public ExecucaoElegibilidade buscarUltimaExecucao() {
+        ExecucaoElegibilidade execucao = ultimaExecucao.get();
+        if (execucao == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND,
+                    "Nenhuma avaliação de elegibilidade em massa foi executada");
+        }
+        return execucao;
+    }
+
+    private void gravar(LoteElegibilidade lote) {
+        try (Connection conexao = dataSource.getConnection()) {
+            GravadorElegibilidade.gravar(conexao, lote, LocalDateTime.now());
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao gravar a elegibilidade da simulação " + lote.ids[0], e);
+        }
+    }
+}
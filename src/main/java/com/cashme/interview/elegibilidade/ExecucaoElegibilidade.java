@@ -0,0 +1,64 @@
+package com.cashme.interview.elegibilidade;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Andamento de uma avaliação em massa, atualizado pelos avaliadores enquanto ela roda e serializado como está na
+ * consulta de situação.
+ */
+public class ExecucaoElegibilidade {
+
+    public enum Situacao { EM_ANDAMENTO, CONCLUIDA, FALHOU }
+
+    private final LocalDateTime inicio = LocalDateTime.now();
+    private final AtomicLong avaliadas = new AtomicLong();
+    private final AtomicLong elegiveis = new AtomicLong();
+    private volatile Situacao situacao = Situacao.EM_ANDAMENTO;
+    private volatile LocalDateTime fim;
+    private volatile String erro;
+
+    void contar(int avaliadasNoLote, int elegiveisNoLote) {
+        avaliadas.addAndGet(avaliadasNoLote);
+        elegiveis.addAndGet(elegiveisNoLote);
+    }
+
+    void concluir() {
+        fim = LocalDateTime.now();
+        situacao = Situacao.CONCLUIDA;
+    }
+
+    void falhar(Throwable causa) {
+        erro = causa.getMessage();
+        fim = LocalDateTime.now();
+        situacao = Situacao.FALHOU;
+    }
+
+    public boolean emAndamento() {
+        return situacao == Situacao.EM_ANDAMENTO;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    public LocalDateTime getInicio() {
+        return inicio;
+    }
+
+    public LocalDateTime getFim() {
+        return fim;
+    }
+
+    public long getAvaliadas() {
+        return avaliadas.get();
+    }
+
+    public long getElegiveis() {
+        return elegiveis.get();
+    }
+
+    public String getErro() {
+        return erro;
+    }
+}
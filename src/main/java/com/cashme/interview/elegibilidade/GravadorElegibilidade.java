@@ -0,0 +1,52 @@
+package com.cashme.interview.elegibilidade;
+
+import org.postgresql.PGConnection;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+/**
+ * Grava um {@link LoteElegibilidade} inteiro num único {@code INSERT ... ON CONFLICT}, com as colunas enviadas como
+ * arrays e abertas por {@code unnest}. Simulações excluídas depois da leitura são ignoradas pelo join, em vez de
+ * derrubarem o lote pela chave estrangeira.
+ */
+final class GravadorElegibilidade {
+
+    private static final String GRAVAR = """
+            insert into elegibilidade_simulacoes (simulacao_id, elegivel, motivos, ltv, avaliada_em)
+            select l.id, l.motivos = 0, l.motivos, l.ltv / 100.0, ?
+            from unnest(?::bigint[], ?::integer[], ?::bigint[]) as l (id, motivos, ltv)
+            join simulacoes s on s.id = l.id
+            on conflict (simulacao_id) do update
+                set elegivel = excluded.elegivel,
+                    motivos = excluded.motivos,
+                    ltv = excluded.ltv,
+                    avaliada_em = excluded.avaliada_em
+            """;
+
+    private GravadorElegibilidade() {
+    }
+
+    /**
+     * @return quantidade de linhas gravadas
+     */
+    static int gravar(Connection conexao, LoteElegibilidade lote, LocalDateTime avaliadaEm) throws SQLException {
+        PGConnection pg = conexao.unwrap(PGConnection.class);
+        int tamanho = lote.tamanho();
+        Array ids = pg.createArrayOf("int8", Arrays.copyOf(lote.ids, tamanho));
+        Array motivos = pg.createArrayOf("int4", Arrays.copyOf(lote.motivos, tamanho));
+        Array ltvs = pg.createArrayOf("int8", Arrays.copyOf(lote.ltvs, tamanho));
+        try (PreparedStatement comando = conexao.prepareStatement(GRAVAR)) {
+            comando.setTimestamp(1, Timestamp.valueOf(avaliadaEm));
+            comando.setArray(2, ids);
+            comando.setArray(3, motivos);
+            comando.setArray(4, ltvs);
+            return comando.executeUpdate();
+        }
+    }
+}
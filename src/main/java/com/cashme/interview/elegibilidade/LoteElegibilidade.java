@@ -0,0 +1,61 @@
+package com.cashme.interview.elegibilidade;
+
+/**
+ * Um bloco de simulações em colunas de primitivos: o que é lido do cursor, o que as regras calculam e o que é
+ * gravado, sem um objeto por linha.
+ */
+final class LoteElegibilidade {
+
+    final long[] ids;
+    final long[] valoresSolicitados;
+    final long[] valoresGarantia;
+    final int[] quantidadesMeses;
+    final int[] taxas;
+    final long[] ltvs;
+    final int[] motivos;
+    private int tamanho;
+
+    LoteElegibilidade(int capacidade) {
+        ids = new long[capacidade];
+        valoresSolicitados = new long[capacidade];
+        valoresGarantia = new long[capacidade];
+        quantidadesMeses = new int[capacidade];
+        taxas = new int[capacidade];
+        ltvs = new long[capacidade];
+        motivos = new int[capacidade];
+    }
+
+    void adicionar(long id, long valorSolicitado, long valorGarantia, int quantidadeMeses, int taxa) {
+        ids[tamanho] = id;
+        valoresSolicitados[tamanho] = valorSolicitado;
+        valoresGarantia[tamanho] = valorGarantia;
+        quantidadesMeses[tamanho] = quantidadeMeses;
+        taxas[tamanho] = taxa;
+        tamanho++;
+    }
+
+    void avaliar(RegrasElegibilidade regras) {
+        for (int i = 0; i < tamanho; i++) {
+            ltvs[i] = RegrasElegibilidade.ltv(valoresSolicitados[i], valoresGarantia[i]);
+            motivos[i] = regras.avaliar(ltvs[i], quantidadesMeses[i], taxas[i]);
+        }
+    }
+
+    int elegiveis() {
+        int elegiveis = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (motivos[i] == 0) {
+                elegiveis++;
+            }
+        }
+        return elegiveis;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean cheio() {
+        return tamanho == ids.length;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cashme.interview.elegibilidade;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regras que uma simulação pode violar. Cada motivo ocupa um bit de {@code elegibilidade_simulacoes.motivos},
+ * na ordem da declaração — novos motivos entram sempre no fim.
+ */
+public enum MotivoInelegibilidade {
+
+    LTV_ACIMA_DO_LIMITE,
+    PRAZO_ABAIXO_DO_MINIMO,
+    PRAZO_ACIMA_DO_MAXIMO,
+    TAXA_ABAIXO_DA_MINIMA,
+    TAXA_ACIMA_DA_MAXIMA;
+
+    private static final MotivoInelegibilidade[] TODOS = values();
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    public static List<MotivoInelegibilidade> de(int motivos) {
+        List<MotivoInelegibilidade> lista = new ArrayList<>(Integer.bitCount(motivos));
+        for (MotivoInelegibilidade motivo : TODOS) {
+            if ((motivos & motivo.bit()) != 0) {
+                lista.add(motivo);
+            }
+        }
+        return lista;
+    }
+}
@@ -0,0 +1,80 @@
+package com.cashme.interview.elegibilidade;
+
+import com.cashme.interview.model.Dinheiro;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Política de elegibilidade configurada em {@code elegibilidade.*}: LTV (valor solicitado sobre valor da garantia)
+ * até {@code ltv-maximo} %, prazo entre {@code prazo-minimo} e {@code prazo-maximo} meses e taxa mensal entre
+ * {@code taxa-minima} e {@code taxa-maxima} %, limites inclusive.
+ * <p>
+ * Trabalha sobre a representação compacta da {@code Simulacao} — centavos e pontos-base — para que a avaliação em
+ * massa não crie objetos por linha.
+ */
+@Component
+public class RegrasElegibilidade {
+
+    private final long ltvMaximo;
+    private final int prazoMinimo;
+    private final int prazoMaximo;
+    private final int taxaMinima;
+    private final int taxaMaxima;
+
+    public RegrasElegibilidade(
+            @Value("${elegibilidade.ltv-maximo:60.00}") BigDecimal ltvMaximo,
+            @Value("${elegibilidade.prazo-minimo:36}") int prazoMinimo,
+            @Value("${elegibilidade.prazo-maximo:240}") int prazoMaximo,
+            @Value("${elegibilidade.taxa-minima:1.00}") BigDecimal taxaMinima,
+            @Value("${elegibilidade.taxa-maxima:2.50}") BigDecimal taxaMaxima) {
+        if (prazoMinimo > prazoMaximo || taxaMinima.compareTo(taxaMaxima) > 0) {
+            throw new IllegalArgumentException("Limites de elegibilidade invertidos: prazo " + prazoMinimo + ".."
+                    + prazoMaximo + ", taxa " + taxaMinima + ".." + taxaMaxima);
+        }
+        this.ltvMaximo = Dinheiro.pontosBase(ltvMaximo);
+        this.prazoMinimo = prazoMinimo;
+        this.prazoMaximo = prazoMaximo;
+        this.taxaMinima = Dinheiro.pontosBase(taxaMinima);
+        this.taxaMaxima = Dinheiro.pontosBase(taxaMaxima);
+    }
+
+    /**
+     * @return bitmask dos {@link MotivoInelegibilidade} violados; zero quando a simulação é elegível
+     */
+    public int avaliar(long ltv, int quantidadeMeses, int taxaPontosBase) {
+        int motivos = 0;
+        if (ltv > ltvMaximo) {
+            motivos |= MotivoInelegibilidade.LTV_ACIMA_DO_LIMITE.bit();
+        }
+        if (quantidadeMeses < prazoMinimo) {
+            motivos |= MotivoInelegibilidade.PRAZO_ABAIXO_DO_MINIMO.bit();
+        }
+        if (quantidadeMeses > prazoMaximo) {
+            motivos |= MotivoInelegibilidade.PRAZO_ACIMA_DO_MAXIMO.bit();
+        }
+        if (taxaPontosBase < taxaMinima) {
+            motivos |= MotivoInelegibilidade.TAXA_ABAIXO_DA_MINIMA.bit();
+        }
+        if (taxaPontosBase > taxaMaxima) {
+            motivos |= MotivoInelegibilidade.TAXA_ACIMA_DA_MAXIMA.bit();
+        }
+        return motivos;
+    }
+
+    /**
+     * LTV em pontos-base, arredondado para cima: qualquer fração acima do limite conta como acima dele. Acima de
+     * ~9 trilhões de reais solicitados a conta exata estouraria o {@code long}, e o valor passa a ser aproximado —
+     * muito além de qualquer limite configurável.
+     */
+    public static long ltv(long valorSolicitadoCentavos, long valorGarantiaCentavos) {
+        if (valorGarantiaCentavos <= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (valorSolicitadoCentavos <= Long.MAX_VALUE / 10_000) {
+            return Math.ceilDiv(valorSolicitadoCentavos * 10_000, valorGarantiaCentavos);
+        }
+        return (long) Math.ceil((double) valorSolicitadoCentavos / valorGarantiaCentavos * 10_000);
+    }
+}
@@ -0,0 +1,261 @@
+package com.cashme.interview.eventos;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.model.Simulacao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Publicação, por Server-Sent Events, das simulações criadas para cada cliente.
+ * <p>
+ * Cada assinatura tem uma fila limitada e uma thread virtual que a esvazia no {@link SseEmitter}: quem publica só
+ * enfileira, e um cliente lento não atrasa os demais. Enquanto não há eventos, a thread fica parada na fila e a
+ * requisição assíncrona não ocupa thread do Tomcat nem conexão com o banco; a cada {@code heartbeat} sem eventos vai
+ * um comentário, que mantém proxies abertos e descobre conexões mortas.
+ * <p>
+ * O ID de cada evento não é o da simulação, que vem em blocos da sequência e não segue a ordem dos commits: é a
+ * posição ({@link Simulacao#getOrdemNoCliente()}) até a qual o cliente já recebeu todas as simulações. Uma simulação
+ * que chega antes de outra de posição menor, ainda não confirmada ou criada em outra instância, é enviada na hora sem
+ * avançar o ID; se o cliente reconectar antes da que falta, recebe as duas de novo e descarta a repetida pelo ID da
+ * simulação. Ao reconectar com {@code Last-Event-ID}, o cliente recebe antes as simulações perdidas, até
+ * {@value #MAXIMO_REENVIO}; se houver mais, o fluxo termina depois delas e a próxima reconexão continua dali. Uma
+ * assinatura cuja fila enche, ou com mais simulações adiantadas que a capacidade da fila, é encerrada do mesmo jeito.
+ * Só as simulações criadas nesta instância são publicadas.
+ */
+@Component
+@Slf4j
+public class EventosSimulacoes {
+
+    public static final int MAXIMO_REENVIO = 500;
+
+    static final String EVENTO = "simulacao";
+
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final int capacidadeFila;
+    private final int maximoAssinaturas;
+
+    private final Map<Long, Set<Assinatura>> assinaturas = new ConcurrentHashMap<>();
+    private final AtomicInteger ativas = new AtomicInteger();
+
+    public EventosSimulacoes(@Value("${eventos.simulacoes.timeout:30m}") Duration timeout,
+                             @Value("${eventos.simulacoes.heartbeat:15s}") Duration heartbeat,
+                             @Value("${eventos.simulacoes.capacidade-fila:256}") int capacidadeFila,
+                             @Value("${eventos.simulacoes.maximo-assinaturas:10000}") int maximoAssinaturas,
+                             MeterRegistry registry) {
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.capacidadeFila = capacidadeFila;
+        this.maximoAssinaturas = maximoAssinaturas;
+
+        Gauge.builder("eventos.simulacoes.assinaturas", ativas, AtomicInteger::get).register(registry);
+    }
+
+    /**
+     * Abre uma assinatura das simulações do cliente. A assinatura começa a receber publicações antes de
+     * {@code pendentes} ser consultado, para que nada criado nesse intervalo se perca; o que vier nos dois é enviado
+     * uma vez só.
+     *
+     * @param pendentes simulações a enviar antes das novas; exceções (cliente inexistente) cancelam a assinatura
+     */
+    public SseEmitter assinar(long clienteId, Supplier<Reenvio> pendentes) {
+        if (ativas.incrementAndGet() > maximoAssinaturas) {
+            ativas.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Limite de assinaturas de eventos atingido");
+        }
+        Assinatura assinatura = new Assinatura(clienteId);
+        assinaturas.compute(clienteId, (id, doCliente) -> {
+            Set<Assinatura> atualizado = doCliente != null ? doCliente : ConcurrentHashMap.<Assinatura>newKeySet();
+            atualizado.add(assinatura);
+            return atualizado;
+        });
+        try {
+            assinatura.iniciar(pendentes.get());
+        } catch (RuntimeException e) {
+            assinatura.encerrar();
+            throw e;
+        }
+        return assinatura.emitter;
+    }
+
+    /**
+     * Publica as simulações quando a transação em andamento confirmar; sem transação, publica na hora.
+     */
+    public void publicarAposCommit(long clienteId, List<Simulacao> simulacoes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicar(clienteId, simulacoes);
+                }
+            });
+        } else {
+            publicar(clienteId, simulacoes);
+        }
+    }
+
+    void publicar(long clienteId, List<Simulacao> simulacoes) {
+        Set<Assinatura> doCliente = assinaturas.get(clienteId);
+        if (doCliente == null) {
+            return;
+        }
+        List<Evento> eventos = simulacoes.stream()
+                .map(simulacao -> new Evento(simulacao.getOrdemNoCliente(), SimulacaoResposta.de(simulacao)))
+                .toList();
+        for (Assinatura assinatura : doCliente) {
+            assinatura.enfileirar(eventos);
+        }
+    }
+
+    public int assinaturasAtivas() {
+        return ativas.get();
+    }
+
+    @PreDestroy
+    void encerrarTodas() {
+        assinaturas.values().forEach(doCliente -> doCliente.forEach(Assinatura::fechar));
+    }
+
+    private void remover(Assinatura assinatura) {
+        assinaturas.computeIfPresent(assinatura.clienteId, (id, doCliente) -> {
+            if (doCliente.remove(assinatura)) {
+                ativas.decrementAndGet();
+            }
+            return doCliente.isEmpty() ? null : doCliente;
+        });
+    }
+
+    /**
+     * Ponto de partida de uma assinatura.
+     *
+     * @param ordem      posição da última simulação que o cliente já tem
+     * @param simulacoes as seguintes, em ordem de posição
+     */
+    public record Reenvio(long ordem, List<Simulacao> simulacoes) {
+    }
+
+    private record Evento(long ordem, SimulacaoResposta simulacao) {
+    }
+
+    private final class Assinatura {
+
+        private final long clienteId;
+        private final SseEmitter emitter = new SseEmitter(timeoutMillis);
+        private final BlockingQueue<Evento> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        private volatile Thread entregador;
+        private volatile boolean encerrada;
+
+        private Assinatura(long clienteId) {
+            this.clienteId = clienteId;
+            emitter.onCompletion(this::encerrar);
+            emitter.onTimeout(emitter::complete);
+            emitter.onError(erro -> encerrar());
+        }
+
+        void iniciar(Reenvio reenvio) {
+            entregador = Thread.ofVirtual().name("eventos-cliente-" + clienteId).start(() -> entregar(reenvio));
+        }
+
+        void enfileirar(List<Evento> eventos) {
+            for (Evento evento : eventos) {
+                if (!fila.offer(evento)) {
+                    log.warn("Fila de eventos do cliente {} cheia, encerrando a assinatura", clienteId);
+                    fechar();
+                    return;
+                }
+            }
+        }
+
+        /** Termina a resposta; o cliente reconecta e recebe o que faltou. */
+        void fechar() {
+            emitter.complete();
+            encerrar();
+        }
+
+        void encerrar() {
+            if (!encerrada) {
+                encerrada = true;
+                remover(this);
+                Thread thread = entregador;
+                if (thread != null && thread != Thread.currentThread()) {
+                    thread.interrupt();
+                }
+            }
+        }
+
+        private void entregar(Reenvio reenvio) {
+            try {
+                // Posição até a qual o cliente tem todas as simulações, e as que ele já tem acima dela.
+                long recebidas = reenvio.ordem();
+                SortedSet<Long> adiantadas = new TreeSet<>();
+                for (Simulacao simulacao : reenvio.simulacoes()) {
+                    recebidas = simulacao.getOrdemNoCliente();
+                    enviar(SimulacaoResposta.de(simulacao), recebidas);
+                }
+                if (reenvio.simulacoes().size() >= MAXIMO_REENVIO) {
+                    emitter.complete();
+                    return;
+                }
+                while (!encerrada) {
+                    Evento evento = fila.poll(heartbeatNanos, TimeUnit.NANOSECONDS);
+                    if (encerrada) {
+                        break;
+                    }
+                    if (evento == null) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else if (evento.ordem() > recebidas && adiantadas.add(evento.ordem())) {
+                        while (adiantadas.remove(recebidas + 1)) {
+                            recebidas++;
+                        }
+                        enviar(evento.simulacao(), recebidas);
+                        if (adiantadas.size() > capacidadeFila) {
+                            log.warn("Assinatura de eventos do cliente {} sem a simulação {}, encerrando",
+                                    clienteId, recebidas + 1);
+                            emitter.complete();
+                            return;
+                        }
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado ou emitter já completado; o container conclui a requisição.
+                log.debug("Assinatura de eventos do cliente {} interrompida: {}", clienteId, e.getMessage());
+            } catch (InterruptedException e) {
+                // Encerrada por outra thread.
+            } finally {
+                encerrar();
+            }
+        }
+
+        private void enviar(SimulacaoResposta simulacao, long recebidas) throws IOException {
+            emitter.send(SseEmitter.event()
+                    .id(String.valueOf(recebidas))
+                    .name(EVENTO)
+                    .data(simulacao, MediaType.APPLICATION_JSON));
+        }
+    }
+}
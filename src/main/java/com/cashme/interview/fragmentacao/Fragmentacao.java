@@ -0,0 +1,199 @@
+package com.cashme.interview.fragmentacao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Onde fica cada dado e como consultar todos os fragmentos.
+ * <p>
+ * O fragmento de um cliente é o resto do ID pela quantidade de fragmentos; cada banco só gera IDs de cliente com o
+ * próprio resto, então o ID basta para encontrá-lo. Um cliente novo vai para o fragmento do hash do CPF, o que mantém
+ * CPFs repetidos no mesmo banco, onde a restrição de unicidade os pega; quem troca o CPF de um cliente consulta também
+ * o fragmento do CPF novo. Simulações ficam com o cliente, e o ID delas
+ * traz o fragmento nos bits acima de {@value #BITS_SEQUENCIA_SIMULACOES}.
+ * <p>
+ * Consultas sem cliente rodam em todos os fragmentos ao mesmo tempo, cada um em sua transação somente leitura, e os
+ * resultados, já ordenados por fragmento, são intercalados. Com um único fragmento tudo roda na thread que chamou.
+ */
+@Component
+public class Fragmentacao {
+
+    static final int BITS_SEQUENCIA_SIMULACOES = 48;
+
+    private final int total;
+    private final TransactionTemplate leitura;
+    private final TaskDecorator propagador;
+
+    @Autowired
+    public Fragmentacao(Fragmentos fragmentos, PlatformTransactionManager transactionManager,
+                        TaskDecorator propagador) {
+        this(fragmentos.total(), transactionManager, propagador);
+    }
+
+    public Fragmentacao(int total, PlatformTransactionManager transactionManager, TaskDecorator propagador) {
+        this.total = total;
+        this.leitura = new TransactionTemplate(transactionManager);
+        this.leitura.setReadOnly(true);
+        this.propagador = propagador;
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public int doCliente(long clienteId) {
+        return Math.floorMod(clienteId, total);
+    }
+
+    public int doCpf(String cpf) {
+        return Math.floorMod(cpf.hashCode(), total);
+    }
+
+    /**
+     * IDs fora da faixa de qualquer fragmento não existem; vão para o fragmento 0, que responde que não os encontrou.
+     */
+    public int daSimulacao(long simulacaoId) {
+        long fragmento = simulacaoId >>> BITS_SEQUENCIA_SIMULACOES;
+        return fragmento < total ? (int) fragmento : 0;
+    }
+
+    /**
+     * IDs de clientes agrupados por fragmento, em ordem de fragmento e, dentro de cada um, na ordem recebida.
+     */
+    public Map<Integer, List<Long>> agruparClientes(Collection<Long> clienteIds) {
+        Map<Integer, List<Long>> grupos = new TreeMap<>();
+        for (Long clienteId : clienteIds) {
+            grupos.computeIfAbsent(doCliente(clienteId), f -> new ArrayList<>()).add(clienteId);
+        }
+        return grupos;
+    }
+
+    /**
+     * Executa a consulta no fragmento, numa transação somente leitura. Num fragmento diferente do da thread, roda em
+     * outra thread: com o open-in-view, a requisição mantém o {@code EntityManager} e a conexão da primeira
+     * transação, que é a do fragmento dela.
+     */
+    public <T> T lerEm(int fragmento, Supplier<T> consulta) {
+        if (fragmento == Fragmento.atual()) {
+            return ler(fragmento, consulta);
+        }
+        return lerIsolado(fragmento, consulta);
+    }
+
+    /**
+     * Como {@link #lerEm}, mas sempre em outra thread, para que a conexão não fique presa ao {@code EntityManager}
+     * da requisição. Serve às respostas assíncronas longas, durante as quais o open-in-view seguraria a conexão.
+     */
+    public <T> T lerIsolado(int fragmento, Supplier<T> consulta) {
+        return this.<T>executar(List.of(() -> ler(fragmento, consulta))).getFirst();
+    }
+
+    /**
+     * Executa a consulta em todos os fragmentos e intercala os resultados. Cada fragmento deve devolver sua parte já
+     * na {@code ordem}.
+     */
+    public <T> List<T> reunir(Supplier<List<T>> consulta, Comparator<? super T> ordem) {
+        if (total == 1) {
+            return ler(0, consulta);
+        }
+        return intercalar(espalhar(consulta), ordem);
+    }
+
+    /**
+     * Uma página de uma consulta ordenada, reunida de todos os fragmentos. Como a página pode vir de qualquer um
+     * deles, cada fragmento devolve as {@code deslocamento + limite} primeiras linhas, e o descarte do deslocamento
+     * acontece depois da intercalação. Quem chama limita o deslocamento, que define quanto cada fragmento lê.
+     *
+     * @param consulta recebe o limite e o deslocamento a aplicar no fragmento
+     */
+    public <T> List<T> reunirPagina(int limite, long deslocamento, BiFunction<Integer, Long, List<T>> consulta,
+                                    Comparator<? super T> ordem) {
+        if (total == 1) {
+            return ler(0, () -> consulta.apply(limite, deslocamento));
+        }
+        int limiteFragmento = Math.toIntExact(deslocamento + limite);
+        List<T> todos = intercalar(espalhar(() -> consulta.apply(limiteFragmento, 0L)), ordem);
+        int inicio = (int) Math.min(deslocamento, todos.size());
+        return todos.subList(inicio, Math.min(inicio + limite, todos.size()));
+    }
+
+    private <T> T ler(int fragmento, Supplier<T> consulta) {
+        return Fragmento.em(fragmento, () -> leitura.execute(status -> consulta.get()));
+    }
+
+    private <T> List<List<T>> espalhar(Supplier<List<T>> consulta) {
+        List<Supplier<List<T>>> partes = new ArrayList<>(total);
+        for (int fragmento = 0; fragmento < total; fragmento++) {
+            int alvo = fragmento;
+            partes.add(() -> ler(alvo, consulta));
+        }
+        return executar(partes);
+    }
+
+    private <T> List<T> executar(List<Supplier<T>> tarefas) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<AtomicReference<T>>> futuros = new ArrayList<>(tarefas.size());
+            for (Supplier<T> tarefa : tarefas) {
+                AtomicReference<T> resultado = new AtomicReference<>();
+                // Decorada aqui, para levar a classe de carga desta thread.
+                futuros.add(executor.submit(propagador.decorate(() -> resultado.set(tarefa.get())), resultado));
+            }
+            List<T> resultados = new ArrayList<>(tarefas.size());
+            for (Future<AtomicReference<T>> futuro : futuros) {
+                resultados.add(futuro.get().get());
+            }
+            return resultados;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha ao consultar os fragmentos", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta aos fragmentos interrompida", e);
+        }
+    }
+
+    static <T> List<T> intercalar(List<List<T>> partes, Comparator<? super T> ordem) {
+        int tamanho = partes.stream().mapToInt(List::size).sum();
+        List<T> resultado = new ArrayList<>(tamanho);
+        PriorityQueue<Cabeca<T>> cabecas = new PriorityQueue<>(Math.max(1, partes.size()),
+                (a, b) -> ordem.compare(a.valor, b.valor));
+        for (List<T> parte : partes) {
+            Iterator<T> iterador = parte.iterator();
+            if (iterador.hasNext()) {
+                cabecas.add(new Cabeca<>(iterador.next(), iterador));
+            }
+        }
+        while (!cabecas.isEmpty()) {
+            Cabeca<T> cabeca = cabecas.poll();
+            resultado.add(cabeca.valor);
+            if (cabeca.resto.hasNext()) {
+                cabecas.add(new Cabeca<>(cabeca.resto.next(), cabeca.resto));
+            }
+        }
+        return resultado;
+    }
+
+    private record Cabeca<T>(T valor, Iterator<T> resto) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.cashme.interview.fragmentacao;
+
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.cashme.interview.medicao.JdbcMedido;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fragmentação opcional dos dados por cliente. Sem {@code fragmentacao.urls-adicionais} há um único fragmento, o
+ * banco de {@code spring.datasource.url}; cada URL adicional é mais um fragmento, na ordem da lista, com pools
+ * iguais aos do fragmento 0 ({@code oltp-N} e {@code exportacao-N}). O {@code DataSource} principal escolhe o pool
+ * pelo {@link Fragmento} e pela {@link ClasseCarga} da thread e, com {@code medicao-sql.habilitada}, é envolvido pelo
+ * {@link JdbcMedido}, que conta os comandos de cada requisição.
+ * <p>
+ * A quantidade de fragmentos faz parte dos IDs gerados (ver {@code V7__fragmentacao.sql}) e não pode mudar depois
+ * que os bancos recebem dados.
+ */
+@Configuration
+public class FragmentacaoConfig {
+
+    @Bean
+    public Fragmentos fragmentos(@Qualifier("dataSourceOltp") HikariDataSource dataSourceOltp,
+                                 @Qualifier("dataSourceExportacao") HikariDataSource dataSourceExportacao,
+                                 @Value("${fragmentacao.urls-adicionais:}") List<String> urlsAdicionais,
+                                 MeterRegistry registry) {
+        List<HikariDataSource> oltp = new ArrayList<>(List.of(dataSourceOltp));
+        List<HikariDataSource> exportacao = new ArrayList<>(List.of(dataSourceExportacao));
+        for (String url : urlsAdicionais) {
+            if (url.isBlank()) {
+                continue;
+            }
+            int fragmento = oltp.size();
+            oltp.add(copiar(dataSourceOltp, url.trim(), ClasseCarga.OLTP.tag() + "-" + fragmento, registry));
+            exportacao.add(copiar(dataSourceExportacao, url.trim(), ClasseCarga.EXPORTACAO.tag() + "-" + fragmento,
+                    registry));
+        }
+        return new Fragmentos(oltp, exportacao);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(Fragmentos fragmentos,
+                                 @Value("${medicao-sql.habilitada:true}") boolean medicaoHabilitada) {
+        ClasseCarga[] classes = ClasseCarga.values();
+        String[][] chaves = new String[fragmentos.total()][classes.length];
+        Map<Object, Object> pools = new HashMap<>();
+        for (int fragmento = 0; fragmento < fragmentos.total(); fragmento++) {
+            for (ClasseCarga classe : classes) {
+                String chave = fragmento == 0 ? classe.tag() : classe.tag() + "-" + fragmento;
+                chaves[fragmento][classe.ordinal()] = chave;
+                pools.put(chave, fragmentos.pool(fragmento, classe));
+            }
+        }
+
+        AbstractRoutingDataSource roteador = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return chaves[Fragmento.atual()][ClasseCarga.atual().ordinal()];
+            }
+        };
+        roteador.setTargetDataSources(pools);
+        roteador.setDefaultTargetDataSource(fragmentos.pool(0, ClasseCarga.OLTP));
+        if (!medicaoHabilitada) {
+            return roteador;
+        }
+        // O proxy não é InitializingBean: o Spring não inicializaria o roteador por ele.
+        roteador.afterPropertiesSet();
+        return JdbcMedido.envolver(roteador);
+    }
+
+    /**
+     * Pool com a configuração do modelo em outro banco. Como no fragmento 0, as conexões só são abertas no primeiro
+     * uso.
+     */
+    private static HikariDataSource copiar(HikariDataSource modelo, String url, String nome, MeterRegistry registry) {
+        HikariDataSource pool = new HikariDataSource();
+        modelo.copyStateTo(pool);
+        pool.setJdbcUrl(url);
+        pool.setPoolName(nome);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return pool;
+    }
+}
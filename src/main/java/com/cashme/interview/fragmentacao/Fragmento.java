@@ -0,0 +1,53 @@
+package com.cashme.interview.fragmentacao;
+
+import java.util.function.Supplier;
+
+/**
+ * Fragmento (banco) da operação em andamento, numa {@link ThreadLocal} lida pelo {@code DataSource} ao escolher o
+ * pool. Definido pelo {@link FragmentoFilter} a partir da URL, pela {@link Fragmentacao} nas consultas espalhadas e
+ * propagado para o {@code applicationTaskExecutor}. Fora disso vale o fragmento 0.
+ */
+public final class Fragmento {
+
+    private static final ThreadLocal<Integer> ATUAL = new ThreadLocal<>();
+
+    private Fragmento() {
+    }
+
+    public static int atual() {
+        Integer fragmento = ATUAL.get();
+        return fragmento != null ? fragmento : 0;
+    }
+
+    /**
+     * Executa a ação com o fragmento definido, restaurando o anterior ao final.
+     */
+    public static <T> T em(int fragmento, Supplier<T> acao) {
+        Integer anterior = ATUAL.get();
+        ATUAL.set(fragmento);
+        try {
+            return acao.get();
+        } finally {
+            if (anterior != null) {
+                ATUAL.set(anterior);
+            } else {
+                ATUAL.remove();
+            }
+        }
+    }
+
+    public static void em(int fragmento, Runnable acao) {
+        em(fragmento, () -> {
+            acao.run();
+            return null;
+        });
+    }
+
+    static void definir(int fragmento) {
+        ATUAL.set(fragmento);
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+}
@@ -0,0 +1,60 @@
+package com.cashme.interview.fragmentacao;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Define o {@link Fragmento} das requisições que identificam um cliente ou uma simulação na URL, antes de qualquer
+ * transação abrir conexão. As demais ficam no fragmento 0 e, quando precisam de outros, consultam pela
+ * {@link Fragmentacao}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+public class FragmentoFilter extends OncePerRequestFilter {
+
+    private static final Pattern CLIENTE =
+            Pattern.compile("^/api/(?:clientes|simulacoes/cliente)/(\\d{1,18})(?:/.*)?$");
+    private static final Pattern SIMULACAO = Pattern.compile("^/api/simulacoes/(\\d{1,18})(?:/.*)?$");
+
+    private final Fragmentacao fragmentacao;
+
+    int classificar(String uri) {
+        Matcher cliente = CLIENTE.matcher(uri);
+        if (cliente.matches()) {
+            return fragmentacao.doCliente(Long.parseLong(cliente.group(1)));
+        }
+        Matcher simulacao = SIMULACAO.matcher(uri);
+        if (simulacao.matches()) {
+            return fragmentacao.daSimulacao(Long.parseLong(simulacao.group(1)));
+        }
+        return 0;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return fragmentacao.total() == 1 || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Fragmento.definir(classificar(request.getRequestURI()));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Fragmento.limpar();
+        }
+    }
+}
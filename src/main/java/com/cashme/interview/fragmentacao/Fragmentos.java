@@ -0,0 +1,38 @@
+package com.cashme.interview.fragmentacao;
+
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.List;
+
+/**
+ * Os pools de cada fragmento, um por {@link ClasseCarga}. O fragmento 0 é o banco de {@code spring.datasource.url},
+ * com os pools do {@code BulkheadConfig}; os demais são criados pelo {@link FragmentacaoConfig}, e só eles são
+ * fechados aqui.
+ */
+public class Fragmentos implements AutoCloseable {
+
+    private final List<HikariDataSource> oltp;
+    private final List<HikariDataSource> exportacao;
+
+    Fragmentos(List<HikariDataSource> oltp, List<HikariDataSource> exportacao) {
+        this.oltp = List.copyOf(oltp);
+        this.exportacao = List.copyOf(exportacao);
+    }
+
+    public int total() {
+        return oltp.size();
+    }
+
+    public HikariDataSource pool(int fragmento, ClasseCarga classe) {
+        return classe == ClasseCarga.EXPORTACAO ? exportacao.get(fragmento) : oltp.get(fragmento);
+    }
+
+    @Override
+    public void close() {
+        for (int fragmento = 1; fragmento < total(); fragmento++) {
+            oltp.get(fragmento).close();
+            exportacao.get(fragmento).close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.cashme.interview.fragmentacao;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.GeneratorCreationContext;
+import org.hibernate.id.enhanced.Optimizer;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.lang.reflect.Member;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gerador de {@link SequenciaFragmentada}. O Hibernate o cria pelo container do Spring, por isso a configuração
+ * chega pelo {@code initialize} e não pelo construtor. A estrutura da sequência é a do Hibernate; só o otimizador,
+ * que guarda o bloco reservado, é escolhido pelo fragmento da thread, a mesma chave que roteou a conexão da sessão.
+ */
+public class GeradorSequenciaFragmentada extends SequenceStyleGenerator
+        implements AnnotationBasedGenerator<SequenciaFragmentada> {
+
+    private final ConcurrentMap<Integer, Optimizer> blocos = new ConcurrentHashMap<>();
+    private SequenciaFragmentada configuracao;
+
+    @Override
+    public void initialize(SequenciaFragmentada configuracao, Member membro, GeneratorCreationContext contexto) {
+        this.configuracao = configuracao;
+    }
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) {
+        parametros.setProperty(SEQUENCE_PARAM, configuracao.sequencia());
+        parametros.setProperty(INCREMENT_PARAM, String.valueOf(configuracao.tamanhoBloco()));
+        parametros.setProperty(OPT_PARAM, "pooled");
+        super.configure(type, parametros, serviceRegistry);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Optimizer bloco = blocos.computeIfAbsent(Fragmento.atual(), fragmento ->
+                new PooledOptimizer(getIdentifierType().getReturnedClass(), configuracao.tamanhoBloco()));
+        return bloco.generate(getDatabaseStructure().buildCallback(session));
+    }
+}
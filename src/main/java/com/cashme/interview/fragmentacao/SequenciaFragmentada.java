@@ -0,0 +1,23 @@
+package com.cashme.interview.fragmentacao;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ID de uma sequência do banco reservada em blocos, como {@code @SequenceGenerator}, mas com um bloco em memória por
+ * {@link Fragmento}: o otimizador padrão do Hibernate é um só por entidade e distribuiria IDs de um fragmento nos
+ * outros.
+ */
+@IdGeneratorType(GeradorSequenciaFragmentada.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SequenciaFragmentada {
+
+    String sequencia();
+
+    int tamanhoBloco() default 50;
+}
@@ -0,0 +1,82 @@
+package com.cashme.interview.fragmentacao;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Confere, na subida, se as sequências de cada fragmento geram IDs do próprio fragmento. A V7 as ajusta uma única vez,
+ * com o total de fragmentos da época, e o checksum do Flyway não cobre os placeholders: um banco migrado com outro
+ * total continuaria gerando IDs que a {@link Fragmentacao} encontra em outro fragmento, sem erro algum.
+ */
+public final class VerificacaoSequencias {
+
+    private VerificacaoSequencias() {
+    }
+
+    /**
+     * @throws IllegalStateException se a identity de {@code clientes} ou {@code simulacoes_id_seq} não gerarem IDs
+     *                               do fragmento
+     */
+    public static void verificar(int fragmento, int total, DataSource dataSource) {
+        Sequencia clientes;
+        Sequencia simulacoes;
+        try (Connection conexao = dataSource.getConnection();
+             Statement comando = conexao.createStatement()) {
+            clientes = ler(comando, "clientes");
+            simulacoes = ler(comando, "simulacoes");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao ler as sequências do fragmento " + fragmento, e);
+        }
+        List<String> problemas = problemas(fragmento, total, clientes, simulacoes);
+        if (!problemas.isEmpty()) {
+            throw new IllegalStateException("As sequências do fragmento " + fragmento + " não correspondem a "
+                    + total + " fragmento(s): " + String.join("; ", problemas)
+                    + ". Ajuste-as antes de subir com esta quantidade de fragmentos.");
+        }
+    }
+
+    static List<String> problemas(int fragmento, int total, Sequencia clientes, Sequencia simulacoes) {
+        List<String> problemas = new ArrayList<>();
+        if (clientes.incremento() != total) {
+            problemas.add("a identity de clientes incrementa de " + clientes.incremento() + " em "
+                    + clientes.incremento());
+        }
+        if (Math.floorMod(clientes.proximo(), total) != fragmento) {
+            problemas.add("o próximo ID de cliente, " + clientes.proximo() + ", é de outro fragmento");
+        }
+        // Com o otimizador em blocos, o valor da sequência é o maior ID do bloco que ela reserva.
+        long menorSimulacao = simulacoes.proximo() - simulacoes.incremento() + 1;
+        if (menorSimulacao >>> Fragmentacao.BITS_SEQUENCIA_SIMULACOES != fragmento
+                || simulacoes.proximo() >>> Fragmentacao.BITS_SEQUENCIA_SIMULACOES != fragmento) {
+            problemas.add("o próximo bloco de simulações, de " + menorSimulacao + " a " + simulacoes.proximo()
+                    + ", está fora da faixa do fragmento");
+        }
+        return problemas;
+    }
+
+    private static Sequencia ler(Statement comando, String tabela) throws SQLException {
+        String nome;
+        try (ResultSet resultado = comando.executeQuery(
+                "SELECT pg_get_serial_sequence('" + tabela + "', 'id')")) {
+            resultado.next();
+            nome = resultado.getString(1);
+        }
+        try (ResultSet resultado = comando.executeQuery("SELECT s.seqincrement, "
+                + "CASE WHEN q.is_called THEN q.last_value + s.seqincrement ELSE q.last_value END "
+                + "FROM " + nome + " q, pg_sequence s WHERE s.seqrelid = '" + nome + "'::regclass")) {
+            resultado.next();
+            return new Sequencia(resultado.getLong(1), resultado.getLong(2));
+        }
+    }
+
+    /**
+     * @param proximo valor que o próximo {@code nextval} devolve
+     */
+    record Sequencia(long incremento, long proximo) {
+    }
+}
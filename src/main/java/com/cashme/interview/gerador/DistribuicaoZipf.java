@@ -0,0 +1,55 @@
+package com.cashme.interview.gerador;
+
+/**
+ * Distribuição de Zipf sobre as posições {@code 1..n}: a posição {@code k} recebe peso proporcional a
+ * {@code 1 / k^expoente}. Com expoente perto de 1, poucos clientes concentram boa parte das simulações e a grande
+ * maioria fica com poucas, como na produção.
+ */
+public final class DistribuicaoZipf {
+
+    private final double[] acumulada;
+
+    public DistribuicaoZipf(int posicoes, double expoente) {
+        if (posicoes < 1) {
+            throw new IllegalArgumentException("A distribuição precisa de ao menos uma posição");
+        }
+        if (expoente < 0) {
+            throw new IllegalArgumentException("O expoente não pode ser negativo: " + expoente);
+        }
+        acumulada = new double[posicoes];
+        double soma = 0;
+        for (int k = 1; k <= posicoes; k++) {
+            soma += 1 / Math.pow(k, expoente);
+            acumulada[k - 1] = soma;
+        }
+        for (int i = 0; i < posicoes; i++) {
+            acumulada[i] /= soma;
+        }
+    }
+
+    public int posicoes() {
+        return acumulada.length;
+    }
+
+    /**
+     * Probabilidade da posição, de {@code 1} (a mais pesada) a {@link #posicoes()}.
+     */
+    public double probabilidade(int posicao) {
+        return acumulada[posicao - 1] - (posicao > 1 ? acumulada[posicao - 2] : 0);
+    }
+
+    /**
+     * Reparte {@code total} entre as posições na proporção da distribuição, de forma determinística: os
+     * arredondamentos são feitos sobre a acumulada, então a soma das cotas é exatamente {@code total}.
+     */
+    public long[] repartir(long total) {
+        long[] cotas = new long[acumulada.length];
+        long anterior = 0;
+        for (int i = 0; i < acumulada.length; i++) {
+            long ate = i == acumulada.length - 1 ? total : Math.round(total * acumulada[i]);
+            cotas[i] = ate - anterior;
+            anterior = ate;
+        }
+        return cotas;
+    }
+}
@@ -0,0 +1,245 @@
+package com.cashme.interview.gerador;
+
+import com.cashme.interview.fragmentacao.Fragmentos;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Popula o banco com uma massa sintética reprodutível: {@code gerador.clientes} clientes, cada um com endereço, e
+ * {@code gerador.simulacoes} simulações repartidas entre eles por uma {@link DistribuicaoZipf}. O primeiro cliente
+ * gerado é o mais carregado. Todos os valores vêm de um {@link Random} com {@code gerador.semente}, então a mesma
+ * configuração produz sempre a mesma massa.
+ * <p>
+ * Os dados são gravados com {@code COPY ... FROM STDIN}, um lote de {@code gerador.tamanho-lote} clientes por
+ * transação. Roda com o perfil {@code gerador}, sem servidor web:
+ * {@code java -jar app.jar --spring.profiles.active=gerador --gerador.clientes=10000}. Com fragmentos, grava só
+ * no fragmento 0.
+ */
+@Component
+@Profile("gerador")
+@RequiredArgsConstructor
+@Slf4j
+public class GeradorDadosSinteticos implements ApplicationRunner {
+
+    private static final String[] PRENOMES = {
+            "Ana", "Bruno", "Carla", "Daniel", "Eduarda", "Felipe", "Gabriela", "Henrique", "Isabela", "João",
+            "Juliana", "Lucas", "Mariana", "Mateus", "Natália", "Otávio", "Patrícia", "Rafael", "Sofia", "Tiago"
+    };
+
+    private static final String[] SOBRENOMES = {
+            "Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira", "Lima", "Gomes",
+            "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares", "Fernandes", "Vieira", "Barbosa"
+    };
+
+    private static final String[][] CIDADES = {
+            {"São Paulo", "SP"}, {"Campinas", "SP"}, {"Rio de Janeiro", "RJ"}, {"Belo Horizonte", "MG"},
+            {"Curitiba", "PR"}, {"Porto Alegre", "RS"}, {"Salvador", "BA"}, {"Recife", "PE"},
+            {"Fortaleza", "CE"}, {"Brasília", "DF"}, {"Goiânia", "GO"}, {"Florianópolis", "SC"}
+    };
+
+    private static final String[] RUAS = {
+            "Rua das Flores", "Avenida Brasil", "Rua XV de Novembro", "Rua Sete de Setembro", "Avenida Paulista",
+            "Rua da Consolação", "Rua Augusta", "Avenida Atlântica"
+    };
+
+    private static final String[] BAIRROS = {"Centro", "Jardim América", "Vila Nova", "Boa Vista", "Bela Vista"};
+
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /** Os CPFs gerados começam em 9 para não colidir com cadastros feitos à mão. */
+    private static final long CPF_INICIAL = 90_000_000_000L;
+
+    /** Data fixa, em vez do relógio, para que a massa não dependa do dia em que foi gerada. */
+    private static final LocalDateTime REFERENCIA = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    /** Incremento de {@code simulacoes_id_seq}, igual ao {@code tamanhoBloco} de {@code Simulacao}. */
+    private static final int IDS_POR_BLOCO_SIMULACOES = 50;
+
+    private static final int TAMANHO_BLOCO_COPY = 1 << 16;
+
+    private final DataSource dataSource;
+    private final Fragmentos fragmentos;
+
+    @Value("${gerador.clientes:10000}")
+    private int quantidadeClientes;
+
+    @Value("${gerador.simulacoes:1000000}")
+    private long quantidadeSimulacoes;
+
+    @Value("${gerador.expoente-zipf:1.1}")
+    private double expoenteZipf;
+
+    @Value("${gerador.semente:42}")
+    private long semente;
+
+    @Value("${gerador.tamanho-lote:1000}")
+    private int tamanhoLote;
+
+    @Value("${gerador.limpar:false}")
+    private boolean limpar;
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException, IOException {
+        log.info("Gerando {} clientes e {} simulações (Zipf s={}, semente={})",
+                quantidadeClientes, quantidadeSimulacoes, expoenteZipf, semente);
+        long inicio = System.nanoTime();
+
+        long[] cotas = new DistribuicaoZipf(quantidadeClientes, expoenteZipf).repartir(quantidadeSimulacoes);
+        Random aleatorio = new Random(semente);
+
+        try (Connection conexao = dataSource.getConnection()) {
+            conexao.setAutoCommit(false);
+            if (limpar) {
+                try (Statement comando = conexao.createStatement()) {
+                    comando.execute("TRUNCATE elegibilidade_simulacoes, simulacoes, clientes, enderecos RESTART IDENTITY");
+                    // RESTART IDENTITY volta simulacoes_id_seq ao valor inicial 1, e o primeiro bloco iria de -48 a 1;
+                    // reposiciona a sequência como a V2.
+                    comando.execute("SELECT setval('simulacoes_id_seq', "
+                            + "coalesce((SELECT max(id) FROM simulacoes), 0) + 50, false)");
+                    if (fragmentos.total() > 1) {
+                        // Também volta a identity de clientes ao START 1; com fragmentos, a V7 a deixou no primeiro
+                        // múltiplo do total, para que id % total continue apontando o fragmento 0.
+                        comando.execute("ALTER TABLE clientes ALTER COLUMN id RESTART WITH " + fragmentos.total());
+                    }
+                }
+                conexao.commit();
+            }
+            CopyManager copy = conexao.unwrap(PGConnection.class).getCopyAPI();
+            long primeiroCliente = -1;
+
+            for (int desde = 0; desde < quantidadeClientes; desde += tamanhoLote) {
+                int ate = Math.min(desde + tamanhoLote, quantidadeClientes);
+                long[] idsEnderecos = reservarIds(conexao, "enderecos", ate - desde);
+                long[] idsClientes = reservarIds(conexao, "clientes", ate - desde);
+                if (primeiroCliente < 0) {
+                    primeiroCliente = idsClientes[0];
+                }
+
+                StringBuilder enderecos = new StringBuilder();
+                StringBuilder clientes = new StringBuilder();
+                for (int i = 0; i < idsClientes.length; i++) {
+                    String[] cidade = CIDADES[aleatorio.nextInt(CIDADES.length)];
+                    enderecos.append(idsEnderecos[i]).append(',')
+                            .append(RUAS[aleatorio.nextInt(RUAS.length)]).append(',')
+                            .append(1 + aleatorio.nextInt(9999)).append(',')
+                            .append(BAIRROS[aleatorio.nextInt(BAIRROS.length)]).append(',')
+                            .append(String.format("%05d-%03d", aleatorio.nextInt(100_000), aleatorio.nextInt(1000)))
+                            .append(',').append(cidade[0]).append(',').append(cidade[1]).append('\n');
+                    clientes.append(idsClientes[i]).append(',')
+                            .append(String.format("%011d", CPF_INICIAL + idsClientes[i])).append(',')
+                            .append(PRENOMES[aleatorio.nextInt(PRENOMES.length)]).append(' ')
+                            .append(SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]).append(' ')
+                            .append(SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)]).append(',')
+                            .append(idsEnderecos[i]).append(',')
+                            .append(cotas[desde + i]).append('\n');
+                }
+                copy.copyIn("COPY enderecos (id, rua, numero, bairro, cep, cidade, estado) FROM STDIN (FORMAT csv)",
+                        new StringReader(enderecos.toString()));
+                copy.copyIn("COPY clientes (id, cpf, nome, endereco_id, simulacoes_registradas) "
+                        + "FROM STDIN (FORMAT csv)", new StringReader(clientes.toString()));
+                copiarSimulacoes(conexao, copy, idsClientes, cotas, desde, aleatorio);
+                conexao.commit();
+                log.info("{} de {} clientes gerados", ate, quantidadeClientes);
+            }
+
+            try (Statement comando = conexao.createStatement()) {
+                comando.execute("ANALYZE enderecos, clientes, simulacoes");
+            }
+            conexao.commit();
+            log.info("Massa gerada em {} s; cliente mais carregado: ID {} com {} simulações",
+                    (System.nanoTime() - inicio) / 1_000_000_000, primeiroCliente, cotas.length > 0 ? cotas[0] : 0);
+        }
+    }
+
+    private void copiarSimulacoes(Connection conexao, CopyManager copy, long[] idsClientes, long[] cotas, int desde,
+                                  Random aleatorio) throws SQLException {
+        long quantidade = 0;
+        for (int i = 0; i < idsClientes.length; i++) {
+            quantidade += cotas[desde + i];
+        }
+        // Mesmo esquema do optimizer pooled da entidade: cada nextval reserva o bloco (valor - 49 .. valor).
+        long[] blocos = reservarIds(conexao, "simulacoes",
+                (int) ((quantidade + IDS_POR_BLOCO_SIMULACOES - 1) / IDS_POR_BLOCO_SIMULACOES));
+        long gravadas = 0;
+
+        CopyIn entrada = copy.copyIn("COPY simulacoes (id, cliente_id, data_hora, valor_solicitado, valor_garantia, "
+                + "quantidade_meses, taxa_juros_mensal, ordem_no_cliente) FROM STDIN (FORMAT csv)");
+        try {
+            StringBuilder bloco = new StringBuilder(TAMANHO_BLOCO_COPY + 256);
+            for (int i = 0; i < idsClientes.length; i++) {
+                for (long s = 0; s < cotas[desde + i]; s++) {
+                    long solicitadoCentavos = 100_000 + (long) (aleatorio.nextDouble() * 49_900_000);
+                    long garantiaCentavos = solicitadoCentavos * (130 + aleatorio.nextInt(171)) / 100;
+                    long id = blocos[(int) (gravadas / IDS_POR_BLOCO_SIMULACOES)] - IDS_POR_BLOCO_SIMULACOES + 1
+                            + gravadas % IDS_POR_BLOCO_SIMULACOES;
+                    gravadas++;
+                    bloco.append(id).append(',').append(idsClientes[i]).append(',')
+                            .append(REFERENCIA.minusSeconds(aleatorio.nextInt(2 * 365 * 24 * 3600)).format(DATA_HORA))
+                            .append(',').append(reais(solicitadoCentavos))
+                            .append(',').append(reais(garantiaCentavos))
+                            .append(',').append(12 + aleatorio.nextInt(229))
+                            .append(',').append(reais(50 + aleatorio.nextInt(201)))
+                            .append(',').append(s + 1).append('\n');
+                    if (bloco.length() >= TAMANHO_BLOCO_COPY) {
+                        escrever(entrada, bloco);
+                    }
+                }
+            }
+            escrever(entrada, bloco);
+            entrada.endCopy();
+        } finally {
+            if (entrada.isActive()) {
+                entrada.cancelCopy();
+            }
+        }
+    }
+
+    private static void escrever(CopyIn entrada, StringBuilder bloco) throws SQLException {
+        byte[] bytes = bloco.toString().getBytes(StandardCharsets.UTF_8);
+        entrada.writeToCopy(bytes, 0, bytes.length);
+        bloco.setLength(0);
+    }
+
+    private static String reais(long centavos) {
+        return centavos / 100 + "." + String.format("%02d", centavos % 100);
+    }
+
+    /**
+     * Reserva valores na sequência do ID da tabela, para que endereços e clientes possam se referenciar dentro do
+     * mesmo lote de {@code COPY}.
+     */
+    private static long[] reservarIds(Connection conexao, String tabela, int quantidade) throws SQLException {
+        long[] ids = new long[quantidade];
+        try (PreparedStatement consulta = conexao.prepareStatement(
+                "SELECT nextval(pg_get_serial_sequence('" + tabela + "', 'id')) FROM generate_series(1, ?)")) {
+            consulta.setInt(1, quantidade);
+            try (ResultSet resultado = consulta.executeQuery()) {
+                for (int i = 0; resultado.next(); i++) {
+                    ids[i] = resultado.getLong(1);
+                }
+            }
+        }
+        return ids;
+    }
+}
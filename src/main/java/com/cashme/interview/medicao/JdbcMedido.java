@@ -0,0 +1,118 @@
+package com.cashme.interview.medicao;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxies JDBC que alimentam a {@link MedicaoSql} da thread: cada {@code execute*} de um {@link Statement} conta um
+ * comando (um {@code executeBatch} conta um só), e cada {@link ResultSet#next()} que avança conta uma linha. As
+ * conexões, comandos e resultados obtidos pelo {@code DataSource} envolvido também são envolvidos. Sem medição na
+ * thread, as chamadas só são repassadas. O proxy implementa a interface JDBC mais específica do objeto do driver
+ * ({@code getStatement()} pode ser convertido em {@link PreparedStatement}), e {@code getStatement()} e
+ * {@code getConnection()} devolvem o mesmo proxy que originou o objeto.
+ * <p>
+ * O que é feito sobre o objeto do driver obtido por {@code unwrap}, como o {@code COPY} da exportação, não é medido.
+ */
+public final class JdbcMedido implements InvocationHandler {
+
+    private final Object alvo;
+    private final Object origem;
+    private final boolean comando;
+    private final boolean resultado;
+
+    private JdbcMedido(Object alvo, Object origem) {
+        this.alvo = alvo;
+        this.origem = origem;
+        this.comando = alvo instanceof Statement;
+        this.resultado = alvo instanceof ResultSet;
+    }
+
+    public static DataSource envolver(DataSource dataSource) {
+        return DataSource.class.cast(envolver(DataSource.class, dataSource, null));
+    }
+
+    private static Object envolver(Class<?> tipo, Object alvo, Object origem) {
+        return Proxy.newProxyInstance(JdbcMedido.class.getClassLoader(), new Class<?>[]{tipo},
+                new JdbcMedido(alvo, origem));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+        switch (metodo.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            default:
+        }
+
+        MedicaoSql medicao = MedicaoSql.atual();
+        boolean medir = medicao != null
+                && (comando && metodo.getName().startsWith("execute") || resultado && metodo.getName().equals("next"));
+        long inicio = medir ? System.nanoTime() : 0;
+        Object retorno;
+        try {
+            retorno = metodo.invoke(alvo, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+        if (medir) {
+            long duracao = System.nanoTime() - inicio;
+            if (resultado) {
+                medicao.registrarLeitura((Boolean) retorno, duracao);
+            } else {
+                medicao.registrarComando(duracao);
+            }
+        }
+        return envolverRetorno(proxy, metodo.getReturnType(), retorno);
+    }
+
+    private static Object envolverRetorno(Object proxy, Class<?> tipo, Object retorno) {
+        if (retorno == null || medido(retorno) != null) {
+            return retorno;
+        }
+        if (tipo != Connection.class && tipo != ResultSet.class && !Statement.class.isAssignableFrom(tipo)) {
+            return retorno;
+        }
+        for (Object anterior = proxy; anterior != null; anterior = medido(anterior).origem) {
+            if (medido(anterior).alvo == retorno) {
+                return anterior;
+            }
+        }
+        return envolver(tipoJdbc(tipo, retorno), retorno, proxy);
+    }
+
+    private static Class<?> tipoJdbc(Class<?> tipo, Object retorno) {
+        if (retorno instanceof CallableStatement) {
+            return CallableStatement.class;
+        }
+        if (retorno instanceof PreparedStatement) {
+            return PreparedStatement.class;
+        }
+        return tipo;
+    }
+
+    private static JdbcMedido medido(Object objeto) {
+        return Proxy.isProxyClass(objeto.getClass()) && Proxy.getInvocationHandler(objeto) instanceof JdbcMedido medido
+                ? medido
+                : null;
+    }
+}
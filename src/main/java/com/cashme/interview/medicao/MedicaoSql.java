@@ -0,0 +1,82 @@
+package com.cashme.interview.medicao;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Comandos JDBC executados, linhas lidas e tempo gasto no banco por uma unidade de trabalho, em geral uma requisição
+ * HTTP aberta pelo {@link MedicaoSqlFilter}.
+ * <p>
+ * A medição em andamento fica numa {@link ThreadLocal} lida pelo {@link JdbcMedido} e é propagada para as threads
+ * que trabalham pela requisição ({@code applicationTaskExecutor} e consultas espalhadas pelos fragmentos), por isso
+ * os contadores aceitam acesso concorrente. O tempo soma a execução de cada comando e a leitura das linhas; com
+ * consultas em paralelo, passa do tempo de relógio.
+ */
+public final class MedicaoSql {
+
+    private static final ThreadLocal<MedicaoSql> ATUAL = new ThreadLocal<>();
+
+    private final LongAdder comandos = new LongAdder();
+    private final LongAdder linhas = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    /**
+     * Medição da thread, ou {@code null} fora de uma unidade medida.
+     */
+    public static MedicaoSql atual() {
+        return ATUAL.get();
+    }
+
+    /**
+     * Executa a ação com a medição definida ({@code null} para nenhuma), restaurando a anterior ao final.
+     */
+    public static void em(MedicaoSql medicao, Runnable acao) {
+        MedicaoSql anterior = ATUAL.get();
+        ATUAL.set(medicao);
+        try {
+            acao.run();
+        } finally {
+            ATUAL.set(anterior);
+        }
+    }
+
+    /**
+     * Executa a ação numa medição nova e a devolve.
+     */
+    public static MedicaoSql medir(Runnable acao) {
+        MedicaoSql medicao = new MedicaoSql();
+        em(medicao, acao);
+        return medicao;
+    }
+
+    static void definir(MedicaoSql medicao) {
+        ATUAL.set(medicao);
+    }
+
+    static void limpar() {
+        ATUAL.remove();
+    }
+
+    public long comandos() {
+        return comandos.sum();
+    }
+
+    public long linhas() {
+        return linhas.sum();
+    }
+
+    public long nanos() {
+        return nanos.sum();
+    }
+
+    void registrarComando(long duracao) {
+        comandos.increment();
+        nanos.add(duracao);
+    }
+
+    void registrarLeitura(boolean linha, long duracao) {
+        if (linha) {
+            linhas.increment();
+        }
+        nanos.add(duracao);
+    }
+}
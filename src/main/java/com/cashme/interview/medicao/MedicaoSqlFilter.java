@@ -0,0 +1,270 @@
+package com.cashme.interview.medicao;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Mede os comandos SQL de cada requisição da API numa {@link MedicaoSql} e publica o resultado:
+ * <ul>
+ *     <li>nos cabeçalhos {@value #COMANDOS}, {@value #LINHAS} e {@value #TEMPO}, escritos quando a resposta começa a
+ *     ser enviada. Nas respostas escritas aos poucos ({@code StreamingResponseBody}, SSE) contam só o que veio antes
+ *     do primeiro byte;</li>
+ *     <li>nas métricas {@code sql.requisicao.comandos}, {@code sql.requisicao.linhas} e {@code sql.requisicao.tempo},
+ *     por método e rota, registradas quando a requisição termina, inclusive as assíncronas.</li>
+ * </ul>
+ * Trabalho {@code @Async} disparado pela requisição continua na medição, mas termina depois do registro.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MedicaoSqlFilter extends OncePerRequestFilter {
+
+    public static final String COMANDOS = "X-SQL-Comandos";
+    public static final String LINHAS = "X-SQL-Linhas";
+    public static final String TEMPO = "X-SQL-Tempo-Ms";
+
+    private final boolean habilitada;
+    private final MeterRegistry registry;
+
+    public MedicaoSqlFilter(@Value("${medicao-sql.habilitada:true}") boolean habilitada, MeterRegistry registry) {
+        this.habilitada = habilitada;
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !habilitada || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        MedicaoSql medicao = new MedicaoSql();
+        RespostaMedida resposta = new RespostaMedida(response, medicao);
+        MedicaoSql.definir(medicao);
+        try {
+            chain.doFilter(request, resposta);
+        } finally {
+            MedicaoSql.limpar();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new RegistrarAoConcluir(() -> registrar(request, medicao)));
+            } else {
+                resposta.escreverCabecalhos();
+                registrar(request, medicao);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request, MedicaoSql medicao) {
+        Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", rota != null ? rota.toString() : "UNKNOWN");
+        DistributionSummary.builder("sql.requisicao.comandos")
+                .description("Comandos SQL executados por requisição")
+                .tags(tags)
+                .register(registry)
+                .record(medicao.comandos());
+        DistributionSummary.builder("sql.requisicao.linhas")
+                .description("Linhas lidas do banco por requisição")
+                .tags(tags)
+                .register(registry)
+                .record(medicao.linhas());
+        Timer.builder("sql.requisicao.tempo")
+                .description("Tempo no banco por requisição")
+                .tags(tags)
+                .register(registry)
+                .record(medicao.nanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Escreve os cabeçalhos da medição imediatamente antes de a resposta ser enviada.
+     */
+    private static final class RespostaMedida extends HttpServletResponseWrapper {
+
+        private final MedicaoSql medicao;
+        private final AtomicBoolean cabecalhosEscritos = new AtomicBoolean();
+        private ServletOutputStream saida;
+        private PrintWriter escritor;
+
+        RespostaMedida(HttpServletResponse response, MedicaoSql medicao) {
+            super(response);
+            this.medicao = medicao;
+        }
+
+        void escreverCabecalhos() {
+            if (!isCommitted() && cabecalhosEscritos.compareAndSet(false, true)) {
+                setHeader(COMANDOS, String.valueOf(medicao.comandos()));
+                setHeader(LINHAS, String.valueOf(medicao.linhas()));
+                setHeader(TEMPO, String.format(Locale.ROOT, "%.3f", medicao.nanos() / 1e6));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                saida = new SaidaMedida(super.getOutputStream(), this);
+            }
+            return saida;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (escritor == null) {
+                escritor = new EscritorMedido(super.getWriter(), this);
+            }
+            return escritor;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            escreverCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            escreverCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            escreverCabecalhos();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            escreverCabecalhos();
+            super.sendRedirect(location);
+        }
+    }
+
+    private static final class SaidaMedida extends ServletOutputStream {
+
+        private final ServletOutputStream alvo;
+        private final RespostaMedida resposta;
+
+        SaidaMedida(ServletOutputStream alvo, RespostaMedida resposta) {
+            this.alvo = alvo;
+            this.resposta = resposta;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            resposta.escreverCabecalhos();
+            alvo.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            resposta.escreverCabecalhos();
+            alvo.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            resposta.escreverCabecalhos();
+            alvo.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            resposta.escreverCabecalhos();
+            alvo.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return alvo.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            alvo.setWriteListener(writeListener);
+        }
+    }
+
+    private static final class EscritorMedido extends PrintWriter {
+
+        private final RespostaMedida resposta;
+
+        EscritorMedido(PrintWriter alvo, RespostaMedida resposta) {
+            super(alvo);
+            this.resposta = resposta;
+        }
+
+        @Override
+        public void write(int c) {
+            resposta.escreverCabecalhos();
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            resposta.escreverCabecalhos();
+            super.write(buf, off, len);
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            resposta.escreverCabecalhos();
+            super.write(s, off, len);
+        }
+
+        @Override
+        public void flush() {
+            resposta.escreverCabecalhos();
+            super.flush();
+        }
+
+        @Override
+        public void close() {
+            resposta.escreverCabecalhos();
+            super.close();
+        }
+    }
+
+    private record RegistrarAoConcluir(Runnable registrar) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            registrar.run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
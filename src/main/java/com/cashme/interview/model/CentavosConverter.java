@@ -0,0 +1,23 @@
+package com.cashme.interview.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Valor em centavos na entidade, {@code numeric(15, 2)} em reais no banco.
+ */
+@Converter
+public class CentavosConverter implements AttributeConverter<Long, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Long centavos) {
+        return centavos == null ? null : Dinheiro.decimal(centavos);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(BigDecimal reais) {
+        return reais == null ? null : Dinheiro.centesimos(reais);
+    }
+}
@@ -1,12 +1,15 @@
 package com.cashme.interview.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
 @Table(name = "clientes")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,6 +34,10 @@ public class Cliente {
     @OneToMany(mappedBy = "cliente", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Simulacao> simulacoes = new ArrayList<>();
 
+    @Version
+    @JsonIgnore
+    private Long versao;
+
     public Cliente(String cpf, String nome, Endereco endereco) {
         this.cpf = cpf;
         this.nome = nome;
@@ -0,0 +1,49 @@
+package com.cashme.interview.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversões da representação compacta de valores monetários: reais em centavos e taxas percentuais em pontos-base
+ * (centésimos de ponto percentual), ambos inteiros. As duas unidades são centésimos da unidade exibida, então a
+ * volta para decimal e a formatação são as mesmas, sempre com duas casas — o formato das colunas
+ * {@code numeric(p, 2)} e do JSON.
+ */
+public final class Dinheiro {
+
+    private Dinheiro() {
+    }
+
+    /**
+     * Converte um valor com até duas casas decimais para centésimos.
+     *
+     * @throws ArithmeticException se o valor tiver mais de duas casas ou não couber num {@code long}
+     */
+    public static long centesimos(BigDecimal valor) {
+        return valor.movePointRight(2).longValueExact();
+    }
+
+    public static int pontosBase(BigDecimal taxaPercentual) {
+        return taxaPercentual.movePointRight(2).intValueExact();
+    }
+
+    public static BigDecimal decimal(long centesimos) {
+        return BigDecimal.valueOf(centesimos, 2);
+    }
+
+    /**
+     * Texto com duas casas decimais, igual a {@code decimal(centesimos).toPlainString()}, sem criar o
+     * {@code BigDecimal}.
+     */
+    public static String formatar(long centesimos) {
+        return acrescentar(new StringBuilder(24), centesimos).toString();
+    }
+
+    public static StringBuilder acrescentar(StringBuilder destino, long centesimos) {
+        long absoluto = Math.abs(centesimos);
+        if (centesimos < 0) {
+            destino.append('-');
+        }
+        long fracao = absoluto % 100;
+        return destino.append(absoluto / 100).append('.').append(fracao < 10 ? "0" : "").append(fracao);
+    }
+}
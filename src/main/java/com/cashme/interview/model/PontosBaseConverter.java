@@ -0,0 +1,23 @@
+package com.cashme.interview.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+/**
+ * Taxa em pontos-base na entidade, {@code numeric(5, 2)} em percentual no banco.
+ */
+@Converter
+public class PontosBaseConverter implements AttributeConverter<Integer, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Integer pontosBase) {
+        return pontosBase == null ? null : Dinheiro.decimal(pontosBase);
+    }
+
+    @Override
+    public Integer convertToEntityAttribute(BigDecimal percentual) {
+        return percentual == null ? null : Dinheiro.pontosBase(percentual);
+    }
+}
@@ -1,5 +1,6 @@
 package com.cashme.interview.model;
 
+import com.cashme.interview.fragmentacao.SequenciaFragmentada;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
@@ -16,7 +17,7 @@ import java.time.LocalDateTime;
 public class Simulacao {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SequenciaFragmentada(sequencia = "simulacoes_id_seq")
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -27,25 +28,85 @@ public class Simulacao {
     @Column(name = "data_hora", nullable = false)
     private LocalDateTime dataHora;
 
+    /**
+     * Valores em centavos e taxa em pontos-base: três primitivos no lugar de três {@code BigDecimal} por linha nas
+     * leituras em massa. As colunas continuam decimais e os nomes dos atributos não mudam, então ordenação e
+     * consultas por propriedade seguem iguais; os acessores em {@code BigDecimal} abaixo mantêm a API e o JSON.
+     */
     @Column(name = "valor_solicitado", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valorSolicitado;
+    @Convert(converter = CentavosConverter.class)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long valorSolicitado;
 
     @Column(name = "valor_garantia", nullable = false, precision = 15, scale = 2)
-    private BigDecimal valorGarantia;
+    @Convert(converter = CentavosConverter.class)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private long valorGarantia;
 
     @Column(name = "quantidade_meses", nullable = false)
     private Integer quantidadeMeses;
 
     @Column(name = "taxa_juros_mensal", nullable = false, precision = 5, scale = 2)
-    private BigDecimal taxaJurosMensal;
+    @Convert(converter = PontosBaseConverter.class)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private int taxaJurosMensal;
+
+    /**
+     * Posição entre as simulações do cliente na ordem em que as transações confirmaram, a partir de 1 e sem buracos;
+     * reservada com {@code ClienteRepository#registrarSimulacoes}. É o cursor do reenvio de eventos.
+     */
+    @Column(name = "ordem_no_cliente", nullable = false)
+    private Long ordemNoCliente;
 
     public Simulacao(Cliente cliente, LocalDateTime dataHora, BigDecimal valorSolicitado,
                      BigDecimal valorGarantia, Integer quantidadeMeses, BigDecimal taxaJurosMensal) {
         this.cliente = cliente;
         this.dataHora = dataHora;
-        this.valorSolicitado = valorSolicitado;
-        this.valorGarantia = valorGarantia;
+        this.valorSolicitado = Dinheiro.centesimos(valorSolicitado);
+        this.valorGarantia = Dinheiro.centesimos(valorGarantia);
         this.quantidadeMeses = quantidadeMeses;
-        this.taxaJurosMensal = taxaJurosMensal;
+        this.taxaJurosMensal = Dinheiro.pontosBase(taxaJurosMensal);
+    }
+
+    public BigDecimal getValorSolicitado() {
+        return Dinheiro.decimal(valorSolicitado);
+    }
+
+    public void setValorSolicitado(BigDecimal valorSolicitado) {
+        this.valorSolicitado = Dinheiro.centesimos(valorSolicitado);
+    }
+
+    public BigDecimal getValorGarantia() {
+        return Dinheiro.decimal(valorGarantia);
+    }
+
+    public void setValorGarantia(BigDecimal valorGarantia) {
+        this.valorGarantia = Dinheiro.centesimos(valorGarantia);
+    }
+
+    public BigDecimal getTaxaJurosMensal() {
+        return Dinheiro.decimal(taxaJurosMensal);
+    }
+
+    public void setTaxaJurosMensal(BigDecimal taxaJurosMensal) {
+        this.taxaJurosMensal = Dinheiro.pontosBase(taxaJurosMensal);
+    }
+
+    @JsonIgnore
+    public long getValorSolicitadoCentavos() {
+        return valorSolicitado;
+    }
+
+    @JsonIgnore
+    public long getValorGarantiaCentavos() {
+        return valorGarantia;
+    }
+
+    @JsonIgnore
+    public int getTaxaJurosMensalPontosBase() {
+        return taxaJurosMensal;
     }
 }
\ No newline at end of file
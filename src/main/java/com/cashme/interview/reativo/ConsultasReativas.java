@@ -0,0 +1,181 @@
+package com.cashme.interview.reativo;
+
+import com.cashme.interview.dto.ClienteResposta;
+import com.cashme.interview.dto.EnderecoResposta;
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.fragmentacao.Fragmentacao;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Leituras da API reativa pelo R2DBC, sem entidades. As listagens são paginadas por ID ({@code id > ? order by id
+ * limit ?}) e cada página usa uma conexão só enquanto é lida: um download lento não segura conexão, então poucas
+ * conexões atendem muitos downloads simultâneos. Cada download tem no máximo duas páginas em memória, a que está
+ * sendo escrita e a seguinte.
+ * <p>
+ * Com fragmentação, cada fragmento tem seu pool; as listagens gerais intercalam os fragmentos por ID e as de um
+ * cliente vão direto ao fragmento dele.
+ */
+public class ConsultasReativas implements AutoCloseable {
+
+    private static final String SIMULACOES = """
+            select id, data_hora, (valor_solicitado * 100)::bigint as valor_solicitado,
+                   (valor_garantia * 100)::bigint as valor_garantia, quantidade_meses,
+                   (taxa_juros_mensal * 100)::integer as taxa_juros_mensal
+            from simulacoes
+            where id > :depois
+            order by id
+            limit :limite
+            """;
+
+    private static final String SIMULACOES_DO_CLIENTE = """
+            select id, data_hora, (valor_solicitado * 100)::bigint as valor_solicitado,
+                   (valor_garantia * 100)::bigint as valor_garantia, quantidade_meses,
+                   (taxa_juros_mensal * 100)::integer as taxa_juros_mensal
+            from simulacoes
+            where cliente_id = :cliente and id > :depois
+            order by id
+            limit :limite
+            """;
+
+    private static final String CLIENTES = """
+            select c.id, c.cpf, c.nome, e.id as endereco_id, e.rua, e.numero, e.bairro, e.cep, e.cidade, e.estado
+            from clientes c
+            left join enderecos e on e.id = c.endereco_id
+            where c.id > :depois
+            order by c.id
+            limit :limite
+            """;
+
+    private static final String CLIENTE = """
+            select c.nome, c.cpf, exists(select 1 from simulacoes s where s.cliente_id = c.id) as possui_simulacoes
+            from clientes c
+            where c.id = :cliente
+            """;
+
+    private final List<ConnectionPool> pools;
+    private final List<DatabaseClient> fragmentos;
+    private final Fragmentacao fragmentacao;
+    private final int tamanhoPagina;
+
+    public ConsultasReativas(List<ConnectionPool> pools, Fragmentacao fragmentacao, int tamanhoPagina) {
+        this.pools = pools;
+        this.fragmentos = pools.stream().map(DatabaseClient::create).toList();
+        this.fragmentacao = fragmentacao;
+        this.tamanhoPagina = tamanhoPagina;
+    }
+
+    public Flux<SimulacaoResposta> simulacoes() {
+        List<Flux<SimulacaoResposta>> partes = new ArrayList<>(fragmentos.size());
+        for (DatabaseClient fragmento : fragmentos) {
+            partes.add(paginar(depois -> fragmento.sql(SIMULACOES)
+                    .bind("depois", depois)
+                    .bind("limite", tamanhoPagina)
+                    .map(ConsultasReativas::simulacao)
+                    .all()
+                    .collectList(), SimulacaoResposta::id, tamanhoPagina));
+        }
+        return intercalar(partes, Comparator.comparing(SimulacaoResposta::id));
+    }
+
+    public Flux<SimulacaoResposta> simulacoesDoCliente(long clienteId) {
+        DatabaseClient fragmento = fragmentos.get(fragmentacao.doCliente(clienteId));
+        return paginar(depois -> fragmento.sql(SIMULACOES_DO_CLIENTE)
+                .bind("cliente", clienteId)
+                .bind("depois", depois)
+                .bind("limite", tamanhoPagina)
+                .map(ConsultasReativas::simulacao)
+                .all()
+                .collectList(), SimulacaoResposta::id, tamanhoPagina);
+    }
+
+    public Flux<ClienteResposta> clientes() {
+        List<Flux<ClienteResposta>> partes = new ArrayList<>(fragmentos.size());
+        for (DatabaseClient fragmento : fragmentos) {
+            partes.add(paginar(depois -> fragmento.sql(CLIENTES)
+                    .bind("depois", depois)
+                    .bind("limite", tamanhoPagina)
+                    .map(ConsultasReativas::cliente)
+                    .all()
+                    .collectList(), ClienteResposta::id, tamanhoPagina));
+        }
+        return intercalar(partes, Comparator.comparing(ClienteResposta::id));
+    }
+
+    /**
+     * Nome e CPF do cliente, para o CSV, e se ele tem simulações; vazio se o cliente não existir.
+     */
+    public Mono<ClienteExportado> clienteExportado(long clienteId) {
+        return fragmentos.get(fragmentacao.doCliente(clienteId)).sql(CLIENTE)
+                .bind("cliente", clienteId)
+                .map(linha -> new ClienteExportado(clienteId, linha.get("nome", String.class),
+                        linha.get("cpf", String.class), linha.get("possui_simulacoes", Boolean.class)))
+                .one();
+    }
+
+    @Override
+    public void close() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+
+    /**
+     * Percorre uma consulta paginada por chave crescente. {@code pagina} recebe a última chave lida (0 na primeira
+     * página) e devolve até {@code tamanhoPagina} linhas; uma página menor encerra a leitura. A página seguinte é
+     * pedida quando a atual começa a ser consumida, e nenhuma outra antes disso.
+     */
+    static <T> Flux<T> paginar(LongFunction<Mono<List<T>>> pagina, ToLongFunction<T> chave, int tamanhoPagina) {
+        return pagina.apply(0L)
+                .expand(linhas -> linhas.size() < tamanhoPagina
+                        ? Mono.empty()
+                        : pagina.apply(chave.applyAsLong(linhas.getLast())))
+                .concatMapIterable(linhas -> linhas, 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Flux<T> intercalar(List<Flux<T>> partes, Comparator<? super T> ordem) {
+        if (partes.size() == 1) {
+            return partes.getFirst();
+        }
+        return Flux.mergeComparing(ordem, partes.toArray(new Flux[0]));
+    }
+
+    private static SimulacaoResposta simulacao(Readable linha) {
+        return new SimulacaoResposta(
+                linha.get("id", Long.class),
+                linha.get("data_hora", LocalDateTime.class),
+                linha.get("valor_solicitado", Long.class),
+                linha.get("valor_garantia", Long.class),
+                linha.get("quantidade_meses", Integer.class),
+                linha.get("taxa_juros_mensal", Integer.class));
+    }
+
+    private static ClienteResposta cliente(Readable linha) {
+        Long enderecoId = linha.get("endereco_id", Long.class);
+        EnderecoResposta endereco = enderecoId == null ? null : new EnderecoResposta(
+                enderecoId,
+                linha.get("rua", String.class),
+                linha.get("numero", String.class),
+                linha.get("bairro", String.class),
+                linha.get("cep", String.class),
+                linha.get("cidade", String.class),
+                linha.get("estado", String.class));
+        return new ClienteResposta(
+                linha.get("id", Long.class),
+                linha.get("cpf", String.class),
+                linha.get("nome", String.class),
+                endereco);
+    }
+
+    public record ClienteExportado(long id, String nome, String cpf, boolean possuiSimulacoes) {
+    }
+}
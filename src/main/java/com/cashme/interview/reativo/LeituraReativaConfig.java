@@ -0,0 +1,173 @@
+package com.cashme.interview.reativo;
+
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.cashme.interview.fragmentacao.Fragmentacao;
+import com.cashme.interview.fragmentacao.Fragmentos;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import io.r2dbc.postgresql.client.SSLMode;
+import org.postgresql.Driver;
+import org.postgresql.PGProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.resources.LoopResources;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * API de leitura não bloqueante (WebFlux + R2DBC) na porta {@code leitura-reativa.porta}, para listagens e
+ * exportações longas. A aplicação continua sendo MVC no Tomcat, e a gravação continua no JPA; esta API só lê.
+ * <p>
+ * Servidor e conexões R2DBC dividem {@code leitura-reativa.threads} threads de event loop. Cada fragmento tem um pool
+ * R2DBC de até {@code leitura-reativa.pool.tamanho-maximo} conexões, criado a partir da URL e das credenciais do pool
+ * JDBC do mesmo fragmento (ver {@link #configuracaoConexao}) e aberto só no primeiro uso. As métricas saem como
+ * {@code leitura.reativa.conexoes}, com as tags {@code fragmento} e {@code estado}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class LeituraReativaConfig {
+
+    /** Parâmetros da URL JDBC que a leitura reativa sabe repassar ao R2DBC. */
+    static final Set<String> PARAMETROS_SUPORTADOS = new TreeSet<>(List.of("ApplicationName", "connectTimeout",
+            "currentSchema", "sslcert", "sslkey", "sslmode", "sslpassword", "sslrootcert"));
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources loopsLeituraReativa(@Value("${leitura-reativa.threads:2}") int threads) {
+        return LoopResources.create("leitura-reativa", threads, true);
+    }
+
+    @Bean
+    public ConsultasReativas consultasReativas(
+            Fragmentos fragmentos,
+            Fragmentacao fragmentacao,
+            LoopResources loopsLeituraReativa,
+            @Value("${leitura-reativa.pool.tamanho-maximo:4}") int tamanhoPool,
+            @Value("${leitura-reativa.pool.espera-maxima:30s}") Duration esperaMaxima,
+            @Value("${leitura-reativa.tamanho-pagina:500}") int tamanhoPagina,
+            MeterRegistry registry) {
+        List<ConnectionPool> pools = new ArrayList<>(fragmentos.total());
+        for (int fragmento = 0; fragmento < fragmentos.total(); fragmento++) {
+            HikariDataSource jdbc = fragmentos.pool(fragmento, ClasseCarga.OLTP);
+            PostgresqlConnectionFactory conexoes = new PostgresqlConnectionFactory(
+                    configuracaoConexao(jdbc.getJdbcUrl())
+                            .username(jdbc.getUsername())
+                            .password(jdbc.getPassword())
+                            .loopResources(loopsLeituraReativa)
+                            .build());
+            ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(conexoes)
+                    .name("leitura-reativa-" + fragmento)
+                    .initialSize(0)
+                    .maxSize(tamanhoPool)
+                    .maxAcquireTime(esperaMaxima)
+                    .build());
+            registrarMetricas(pool, fragmento, registry);
+            pools.add(pool);
+        }
+        return new ConsultasReativas(pools, fragmentacao, tamanhoPagina);
+    }
+
+    @Bean
+    public LeituraReativaHandler leituraReativaHandler(ConsultasReativas consultasReativas,
+                                                       ObjectMapper objectMapper) {
+        return new LeituraReativaHandler(consultasReativas, objectMapper);
+    }
+
+    @Bean
+    public ServidorLeituraReativa servidorLeituraReativa(LeituraReativaHandler handler,
+                                                         LoopResources loopsLeituraReativa,
+                                                         @Value("${leitura-reativa.porta:8090}") int porta) {
+        return new ServidorLeituraReativa(RouterFunctions.toHttpHandler(rotas(handler)), loopsLeituraReativa, porta);
+    }
+
+    static RouterFunction<ServerResponse> rotas(LeituraReativaHandler handler) {
+        return RouterFunctions.route()
+                .GET("/api/simulacoes", handler::listarSimulacoes)
+                .GET("/api/simulacoes/cliente/{clienteId}", handler::listarSimulacoesDoCliente)
+                .GET("/api/simulacoes/cliente/{clienteId}/export/csv", handler::exportarCsv)
+                .GET("/api/clientes", handler::listarClientes)
+                .build();
+    }
+
+    /**
+     * Traduz a URL JDBC do fragmento para a configuração R2DBC. Só um host é aceito, e dos parâmetros da URL só os de
+     * {@link #PARAMETROS_SUPORTADOS}; qualquer outro impede a subida, em vez de ser ignorado pela leitura reativa. Sem
+     * {@code sslmode}, vale o padrão do driver JDBC, {@code prefer}.
+     */
+    static PostgresqlConnectionConfiguration.Builder configuracaoConexao(String jdbcUrl) {
+        Properties url = Driver.parseURL(jdbcUrl, new Properties());
+        if (url == null) {
+            throw new IllegalStateException("URL JDBC inválida para a leitura reativa: " + jdbcUrl);
+        }
+        String host = url.getProperty(PGProperty.PG_HOST.getName());
+        if (host.contains(",")) {
+            throw new IllegalStateException("A leitura reativa não aceita URL com mais de um host: " + jdbcUrl);
+        }
+        Set<String> parametros = new TreeSet<>(url.stringPropertyNames());
+        parametros.removeAll(List.of(PGProperty.PG_HOST.getName(), PGProperty.PG_PORT.getName(),
+                PGProperty.PG_DBNAME.getName()));
+        parametros.removeAll(PARAMETROS_SUPORTADOS);
+        if (!parametros.isEmpty()) {
+            throw new IllegalStateException("A leitura reativa não reconhece os parâmetros " + parametros
+                    + " da URL " + jdbcUrl + "; os aceitos são " + PARAMETROS_SUPORTADOS);
+        }
+
+        PostgresqlConnectionConfiguration.Builder configuracao = PostgresqlConnectionConfiguration.builder()
+                .host(host)
+                .port(Integer.parseInt(url.getProperty(PGProperty.PG_PORT.getName())))
+                .database(url.getProperty(PGProperty.PG_DBNAME.getName()))
+                .applicationName(url.getProperty("ApplicationName", "leitura-reativa"))
+                .sslMode(SSLMode.fromValue(url.getProperty("sslmode", "prefer")));
+        if (url.containsKey("sslrootcert")) {
+            configuracao.sslRootCert(url.getProperty("sslrootcert"));
+        }
+        if (url.containsKey("sslcert")) {
+            configuracao.sslCert(url.getProperty("sslcert"));
+        }
+        if (url.containsKey("sslkey")) {
+            configuracao.sslKey(url.getProperty("sslkey"));
+        }
+        if (url.containsKey("sslpassword")) {
+            configuracao.sslPassword(url.getProperty("sslpassword"));
+        }
+        if (url.containsKey("currentSchema")) {
+            configuracao.schema(url.getProperty("currentSchema"));
+        }
+        if (url.containsKey("connectTimeout")) {
+            configuracao.connectTimeout(Duration.ofSeconds(Long.parseLong(url.getProperty("connectTimeout"))));
+        }
+        return configuracao;
+    }
+
+    private static void registrarMetricas(ConnectionPool pool, int fragmento, MeterRegistry registry) {
+        medir(pool, fragmento, "ativas", PoolMetrics::acquiredSize, registry);
+        medir(pool, fragmento, "ociosas", PoolMetrics::idleSize, registry);
+        medir(pool, fragmento, "pendentes", PoolMetrics::pendingAcquireSize, registry);
+    }
+
+    private static void medir(ConnectionPool pool, int fragmento, String estado, ToIntFunction<PoolMetrics> valor,
+                              MeterRegistry registry) {
+        Gauge.builder("leitura.reativa.conexoes", pool,
+                        p -> p.getMetrics().map(valor::applyAsInt).orElse(0))
+                .tag("fragmento", String.valueOf(fragmento))
+                .tag("estado", estado)
+                .register(registry);
+    }
+}
@@ -0,0 +1,133 @@
+package com.cashme.interview.reativo;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.service.SimulacaoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Endpoints da API reativa, nos mesmos caminhos das listagens e da exportação CSV do MVC: listas em NDJSON, um
+ * objeto por linha com o mesmo JSON do MVC, e o CSV com o mesmo conteúdo de
+ * {@link SimulacaoService#gerarRelatorioCsv}.
+ * <p>
+ * Os dois formatos são escritos conforme o cliente consome, sem montar a resposta inteira, em buffers de
+ * {@value #LINHAS_POR_BUFFER} linhas. O NDJSON não passa pelo encoder do WebFlux, que descarregaria a saída a cada
+ * objeto: cada lote é serializado num {@link SequenceWriter} próprio e vai para a resposta como um buffer só.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class LeituraReativaHandler {
+
+    /** Linhas de CSV ou objetos de NDJSON por buffer escrito na resposta. */
+    private static final int LINHAS_POR_BUFFER = 256;
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private final ConsultasReativas consultas;
+    private final ObjectMapper objectMapper;
+
+    public Mono<ServerResponse> listarSimulacoes(ServerRequest request) {
+        log.info("Listando todas as simulações (reativo)");
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromDataBuffers(ndjson(consultas.simulacoes())));
+    }
+
+    public Mono<ServerResponse> listarSimulacoesDoCliente(ServerRequest request) {
+        long clienteId = clienteId(request);
+        log.info("Listando simulações do cliente ID: {} (reativo)", clienteId);
+        return clienteExistente(clienteId).flatMap(cliente -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromDataBuffers(ndjson(consultas.simulacoesDoCliente(clienteId)))));
+    }
+
+    public Mono<ServerResponse> exportarCsv(ServerRequest request) {
+        long clienteId = clienteId(request);
+        log.info("Exportando simulações do cliente ID: {} em formato CSV (reativo)", clienteId);
+        return clienteExistente(clienteId).flatMap(cliente -> {
+            if (!cliente.possuiSimulacoes()) {
+                return ServerResponse.noContent().build();
+            }
+            return ServerResponse.ok()
+                    .headers(headers -> headers.setContentDispositionFormData("attachment",
+                            "simulacoes_cliente_" + clienteId + ".csv"))
+                    .contentType(TEXT_CSV)
+                    .body(BodyInserters.fromDataBuffers(csv(cliente)));
+        });
+    }
+
+    public Mono<ServerResponse> listarClientes(ServerRequest request) {
+        log.info("Listando todos os clientes (reativo)");
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(BodyInserters.fromDataBuffers(ndjson(consultas.clientes())));
+    }
+
+    private Flux<DataBuffer> ndjson(Flux<?> objetos) {
+        ObjectWriter escritor = objectMapper.writer().withRootValueSeparator("\n");
+        return objetos.buffer(LINHAS_POR_BUFFER).map(lote -> {
+            ByteArrayOutputStream saida = new ByteArrayOutputStream(lote.size() * 160);
+            try (SequenceWriter sequencia = escritor.writeValues(saida)) {
+                sequencia.writeAll(lote);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            saida.write('\n');
+            return DefaultDataBufferFactory.sharedInstance.wrap(saida.toByteArray());
+        });
+    }
+
+    private Flux<DataBuffer> csv(ConsultasReativas.ClienteExportado cliente) {
+        Flux<DataBuffer> linhas = consultas.simulacoesDoCliente(cliente.id())
+                .buffer(LINHAS_POR_BUFFER)
+                .map(simulacoes -> buffer(simulacoes, cliente));
+        return Flux.concat(Mono.fromSupplier(() -> buffer(SimulacaoService.CABECALHO_CSV)), linhas);
+    }
+
+    private static DataBuffer buffer(List<SimulacaoResposta> simulacoes, ConsultasReativas.ClienteExportado cliente) {
+        StringBuilder sb = new StringBuilder(simulacoes.size() * 128);
+        for (SimulacaoResposta simulacao : simulacoes) {
+            SimulacaoService.appendLinhaCsv(sb, simulacao, cliente.id(), cliente.nome(), cliente.cpf());
+        }
+        return buffer(sb.toString());
+    }
+
+    private static DataBuffer buffer(String texto) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(texto.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mono<ConsultasReativas.ClienteExportado> clienteExistente(long clienteId) {
+        return consultas.clienteExportado(clienteId)
+                .switchIfEmpty(Mono.error(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Cliente não encontrado com ID: " + clienteId
+                )));
+    }
+
+    private static long clienteId(ServerRequest request) {
+        try {
+            return Long.parseLong(request.pathVariable("clienteId"));
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ID de cliente inválido");
+        }
+    }
+}
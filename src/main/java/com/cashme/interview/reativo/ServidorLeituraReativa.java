@@ -0,0 +1,52 @@
+package com.cashme.interview.reativo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/**
+ * Servidor Reactor Netty da API reativa, numa porta própria ao lado do Tomcat. Sobe e desce com o contexto, como o
+ * servidor web principal, e usa as mesmas threads de event loop das conexões R2DBC.
+ */
+@Slf4j
+public class ServidorLeituraReativa implements SmartLifecycle {
+
+    private final HttpHandler handler;
+    private final LoopResources loops;
+    private final int porta;
+    private volatile DisposableServer servidor;
+
+    public ServidorLeituraReativa(HttpHandler handler, LoopResources loops, int porta) {
+        this.handler = handler;
+        this.loops = loops;
+        this.porta = porta;
+    }
+
+    @Override
+    public void start() {
+        servidor = HttpServer.create()
+                .port(porta)
+                .runOn(loops)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        log.info("API reativa de leitura na porta {}", servidor.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer atual = servidor;
+        servidor = null;
+        if (atual != null) {
+            atual.disposeNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return servidor != null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cashme.interview.repository;
+
+/**
+ * Linha da busca de clientes: só as colunas exibidas na lista de resultados e a relevância do casamento.
+ */
+public interface ClienteEncontrado {
+
+    Long getId();
+
+    String getNome();
+
+    String getCpf();
+
+    Double getRelevancia();
+}
@@ -1,12 +1,80 @@
 package com.cashme.interview.repository;
 
 import com.cashme.interview.model.Cliente;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ClienteRepository extends JpaRepository<Cliente, Long> {
     Optional<Cliente> findByCpf(String cpf);
     boolean existsByCpf(String cpf);
+
+    @EntityGraph(attributePaths = "endereco")
+    List<Cliente> findAllByOrderByIdAsc();
+
+    @EntityGraph(attributePaths = "endereco")
+    List<Cliente> findByIdIn(Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Cliente c WHERE c.id = :id")
+    int deleteByIdEmMassa(@Param("id") Long id);
+
+    /**
+     * Soma {@code quantidade} às simulações registradas do cliente e devolve o novo total, a posição da última delas;
+     * vazio se o cliente não existe. A linha do cliente fica bloqueada até o fim da transação, então outra que
+     * registre simulações do mesmo cliente espera este commit, e as posições seguem a ordem dos commits. A coluna não
+     * é mapeada em {@link Cliente}, para que um update da entidade não grave um total desatualizado.
+     */
+    @Query(value = """
+            UPDATE clientes SET simulacoes_registradas = simulacoes_registradas + :quantidade
+            WHERE id = :id
+            RETURNING simulacoes_registradas
+            """, nativeQuery = true)
+    Optional<Long> registrarSimulacoes(@Param("id") Long id, @Param("quantidade") int quantidade);
+
+    @Query(value = "SELECT simulacoes_registradas FROM clientes WHERE id = :id", nativeQuery = true)
+    Optional<Long> findSimulacoesRegistradasById(@Param("id") Long id);
+
+    /**
+     * Nomes parecidos com o termo, do mais para o menos parecido, pela semelhança de palavra do {@code pg_trgm}
+     * sobre {@code normalizar_busca}. O índice GiST entrega as linhas já nessa ordem, então só as
+     * {@code deslocamento + limite} primeiras são lidas; a ordenação externa só desempata por nome e ID. O nome é
+     * comparado na collation {@code "C"}, a mesma ordem de {@code String.compareTo} usada ao intercalar os fragmentos;
+     * na collation do banco, acentos e maiúsculas mudariam a ordem entre um fragmento e outro.
+     */
+    @Query(value = """
+            SELECT r.id AS id, r.nome AS nome, r.cpf AS cpf, r.relevancia AS relevancia
+            FROM (
+                SELECT c.id, c.nome, c.cpf,
+                       CAST(1 - (normalizar_busca(:termo) <<-> normalizar_busca(c.nome)) AS double precision)
+                           AS relevancia
+                FROM clientes c
+                WHERE normalizar_busca(:termo) <% normalizar_busca(c.nome)
+                ORDER BY normalizar_busca(:termo) <<-> normalizar_busca(c.nome)
+                LIMIT :limite + :deslocamento
+            ) r
+            ORDER BY r.relevancia DESC, r.nome COLLATE "C", r.id
+            LIMIT :limite OFFSET :deslocamento
+            """, nativeQuery = true)
+    List<ClienteEncontrado> buscarPorNome(@Param("termo") String termo,
+                                          @Param("limite") int limite,
+                                          @Param("deslocamento") long deslocamento);
+
+    @Query(value = """
+            SELECT c.id AS id, c.nome AS nome, c.cpf AS cpf, CAST(1 AS double precision) AS relevancia
+            FROM clientes c
+            WHERE c.cpf LIKE :prefixo
+            ORDER BY c.cpf
+            LIMIT :limite OFFSET :deslocamento
+            """, nativeQuery = true)
+    List<ClienteEncontrado> buscarPorPrefixoCpf(@Param("prefixo") String prefixo,
+                                                @Param("limite") int limite,
+                                                @Param("deslocamento") long deslocamento);
 }
\ No newline at end of file
@@ -2,8 +2,15 @@ package com.cashme.interview.repository;
 
 import com.cashme.interview.model.Endereco;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface EnderecoRepository extends JpaRepository<Endereco, Long> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Endereco e WHERE e.id = :id")
+    int deleteByIdEmMassa(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,23 +1,63 @@
 package com.cashme.interview.repository;
 
 import com.cashme.interview.model.Simulacao;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface SimulacaoRepository extends JpaRepository<Simulacao, Long> {
 
+    @EntityGraph(attributePaths = "cliente")
     List<Simulacao> findByClienteId(Long clienteId);
 
+    List<Simulacao> findAllByOrderByIdAsc();
+
     Page<Simulacao> findByClienteId(Long clienteId, Pageable pageable);
 
+    boolean existsByClienteId(Long clienteId);
+
+    List<Simulacao> findByClienteIdAndOrdemNoClienteGreaterThanOrderByOrdemNoClienteAsc(Long clienteId, Long ordem,
+                                                                                        Limit limite);
+
     @Query("SELECT s FROM Simulacao s WHERE s.cliente.id = :clienteId ORDER BY s.dataHora DESC")
     List<Simulacao> findUltimasSimulacoesByCliente(@Param("clienteId") Long clienteId);
 
+    /**
+     * Percorre, em um único cursor, as simulações de vários clientes já com o cliente carregado,
+     * ordenadas por cliente para que cada arquivo da exportação possa ser escrito em sequência.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT s FROM Simulacao s JOIN FETCH s.cliente WHERE s.cliente.id IN :clienteIds ORDER BY s.cliente.id, s.id")
+    Stream<Simulacao> streamByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Simulacao s WHERE s.cliente.id = :clienteId")
+    int deleteByClienteIdEmMassa(@Param("clienteId") Long clienteId);
+
+    /**
+     * Remove até {@code limite} simulações do cliente, para exclusões em lotes com transações curtas.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM simulacoes WHERE id IN (SELECT id FROM simulacoes WHERE cliente_id = :clienteId LIMIT :limite)",
+            nativeQuery = true)
+    int deleteLoteByClienteId(@Param("clienteId") Long clienteId, @Param("limite") int limite);
+
+    @Query("SELECT s.cliente.id, COUNT(s) FROM Simulacao s WHERE s.cliente.id IN :clienteIds GROUP BY s.cliente.id")
+    List<Object[]> countByClienteIdIn(@Param("clienteIds") Collection<Long> clienteIds);
+
 }
\ No newline at end of file
@@ -1,16 +1,47 @@
 package com.cashme.interview.service;
 
+import com.cashme.interview.cache.CacheRespostas;
+import com.cashme.interview.dto.ClienteBusca;
+import com.cashme.interview.fragmentacao.Fragmentacao;
+import com.cashme.interview.fragmentacao.Fragmento;
 import com.cashme.interview.model.Cliente;
 import com.cashme.interview.model.Endereco;
+import com.cashme.interview.repository.ClienteEncontrado;
 import com.cashme.interview.repository.ClienteRepository;
+import com.cashme.interview.repository.EnderecoRepository;
+import com.cashme.interview.repository.SimulacaoRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
@@ -18,10 +49,45 @@ import java.util.List;
 public class ClienteService {
 
     private final ClienteRepository clienteRepository;
+    private final SimulacaoRepository simulacaoRepository;
+    private final EnderecoRepository enderecoRepository;
+    private final CacheRespostas cacheRespostas;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Fragmentacao fragmentacao;
 
+    static final int MINIMO_CARACTERES_BUSCA = 3;
+    static final int MAXIMO_RESULTADOS_BUSCA = 50;
+    /** Cada fragmento lê deslocamento + limite linhas, então a profundidade da busca é limitada. */
+    static final int MAXIMO_DESLOCAMENTO_BUSCA = 1000;
+
+    private static final Comparator<ClienteEncontrado> ORDEM_RELEVANCIA =
+            Comparator.comparing(ClienteEncontrado::getRelevancia, Comparator.reverseOrder())
+                    .thenComparing(ClienteEncontrado::getNome)
+                    .thenComparing(ClienteEncontrado::getId);
+
+    /** Nome gerado pelo Postgres para o {@code unique} de {@code clientes.cpf} (V1). */
+    private static final String RESTRICAO_CPF_UNICO = "clientes_cpf_key";
+
+    private static final Pattern CPF_PARCIAL = Pattern.compile("^[\\d.\\-]+$");
+
+    private static final Set<String> CAMPOS_CLIENTE = Set.of("cpf", "nome", "endereco");
+
+    private static final Map<String, Integer> CAMPOS_ENDERECO = Map.of(
+            "rua", 100, "numero", 10, "bairro", 50, "cep", 9, "cidade", 50, "estado", 2);
+
+    @Value("${clientes.exclusao.tamanho-lote:5000}")
+    private int tamanhoLoteExclusao;
+
+    /**
+     * O cliente é gravado no fragmento do CPF, onde também é feita a verificação de CPF repetido.
+     */
     public Cliente criarCliente(Cliente cliente) {
         log.info("Criando novo cliente: {}", cliente.getNome());
+        return Fragmento.em(fragmentacao.doCpf(cliente.getCpf()), () -> gravarNovoCliente(cliente));
+    }
 
+    private Cliente gravarNovoCliente(Cliente cliente) {
         if (clienteRepository.existsByCpf(cliente.getCpf())) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
@@ -38,7 +104,7 @@ public class ClienteService {
 
     public List<Cliente> listarTodos() {
         log.info("Listando todos os clientes");
-        return clienteRepository.findAll();
+        return fragmentacao.reunir(clienteRepository::findAllByOrderByIdAsc, Comparator.comparing(Cliente::getId));
     }
 
     public Cliente buscarPorId(Long id) {
@@ -50,14 +116,69 @@ public class ClienteService {
                 ));
     }
 
+    /**
+     * Busca para autocompletar: termos só com dígitos (e a pontuação do CPF) são tratados como prefixo de CPF; os
+     * demais procuram nomes parecidos, sem diferenciar acentos e maiúsculas, ordenados por relevância. O resultado
+     * é uma fatia sem total, para não pagar uma contagem de todos os casamentos a cada tecla.
+     */
+    public Slice<ClienteBusca> buscarClientes(String termo, Pageable pagina) {
+        String normalizado = termo == null ? "" : termo.trim().replaceAll("\\s+", " ");
+        if (normalizado.length() < MINIMO_CARACTERES_BUSCA) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "O termo de busca precisa ter ao menos " + MINIMO_CARACTERES_BUSCA + " caracteres"
+            );
+        }
+        if (pagina.getPageSize() > MAXIMO_RESULTADOS_BUSCA) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "A página da busca tem no máximo " + MAXIMO_RESULTADOS_BUSCA + " resultados"
+            );
+        }
+        if (pagina.getOffset() > MAXIMO_DESLOCAMENTO_BUSCA) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "A busca alcança no máximo os " + MAXIMO_DESLOCAMENTO_BUSCA + " primeiros resultados"
+            );
+        }
+
+        // Um resultado a mais que o pedido indica se existe próxima página.
+        int limite = pagina.getPageSize() + 1;
+        List<ClienteEncontrado> encontrados;
+        if (CPF_PARCIAL.matcher(normalizado).matches()) {
+            String digitos = normalizado.replaceAll("\\D", "");
+            if (digitos.length() < MINIMO_CARACTERES_BUSCA) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "O prefixo de CPF precisa ter ao menos " + MINIMO_CARACTERES_BUSCA + " dígitos"
+                );
+            }
+            encontrados = fragmentacao.reunirPagina(limite, pagina.getOffset(),
+                    (limiteFragmento, deslocamento) ->
+                            clienteRepository.buscarPorPrefixoCpf(digitos + "%", limiteFragmento, deslocamento),
+                    Comparator.comparing(ClienteEncontrado::getCpf));
+        } else {
+            encontrados = fragmentacao.reunirPagina(limite, pagina.getOffset(),
+                    (limiteFragmento, deslocamento) ->
+                            clienteRepository.buscarPorNome(normalizado, limiteFragmento, deslocamento),
+                    ORDEM_RELEVANCIA);
+        }
+
+        boolean haMais = encontrados.size() > pagina.getPageSize();
+        List<ClienteBusca> resultados = encontrados.stream()
+                .limit(pagina.getPageSize())
+                .map(ClienteBusca::de)
+                .toList();
+        return new SliceImpl<>(resultados, pagina, haMais);
+    }
+
     @Transactional
     public Cliente atualizarCliente(Long id, Cliente clienteAtualizado) {
         log.info("Atualizando cliente ID: {}", id);
 
         Cliente clienteExistente = buscarPorId(id);
 
-        if (!clienteExistente.getCpf().equals(clienteAtualizado.getCpf()) &&
-                clienteRepository.existsByCpf(clienteAtualizado.getCpf())) {
+        if (!clienteExistente.getCpf().equals(clienteAtualizado.getCpf()) && cpfEmUso(clienteAtualizado.getCpf())) {
             throw new ResponseStatusException(
                     HttpStatus.CONFLICT,
                     "CPF já cadastrado: " + clienteAtualizado.getCpf()
@@ -72,13 +193,207 @@ public class ClienteService {
         return clienteRepository.save(clienteExistente);
     }
 
+    /**
+     * Atualização parcial com semântica de JSON Merge Patch: só os campos presentes no corpo são alterados, e
+     * {@code "endereco": null} remove o endereço. Como as entidades usam {@code @DynamicUpdate}, o UPDATE leva apenas
+     * as colunas que de fato mudaram, e nenhum comando é emitido quando nada mudou. O CPF só é consultado quando muda.
+     *
+     * @param versaoEsperada versão enviada no {@code If-Match}; {@code null} dispensa a pré-condição
+     */
+    @Transactional
+    public Cliente atualizarParcialmente(Long id, JsonNode alteracoes, Long versaoEsperada) {
+        log.info("Atualizando parcialmente cliente ID: {}", id);
+
+        if (alteracoes == null || !alteracoes.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "O corpo deve ser um objeto JSON");
+        }
+        validarCampos(alteracoes, CAMPOS_CLIENTE::contains);
+
+        Cliente cliente = buscarPorId(id);
+        if (versaoEsperada != null && !versaoEsperada.equals(cliente.getVersao())) {
+            throw new ResponseStatusException(
+                    HttpStatus.PRECONDITION_FAILED,
+                    "Cliente ID: " + id + " foi alterado por outra requisição"
+            );
+        }
+
+        if (alteracoes.has("nome")) {
+            cliente.setNome(texto(alteracoes, "nome", 100));
+        }
+        if (alteracoes.has("cpf")) {
+            String cpf = texto(alteracoes, "cpf", 11);
+            if (!cpf.equals(cliente.getCpf())) {
+                if (cpfEmUso(cpf)) {
+                    throw new ResponseStatusException(HttpStatus.CONFLICT, "CPF já cadastrado: " + cpf);
+                }
+                cliente.setCpf(cpf);
+            }
+        }
+        boolean enderecoAlterado = alteracoes.has("endereco")
+                && mesclarEndereco(cliente, alteracoes.get("endereco"));
+
+        try {
+            if (enderecoAlterado) {
+                // O endereço é outra tabela: incrementa a versão do cliente para que o ETag cubra o agregado.
+                // OPTIMISTIC_FORCE_INCREMENT só verifica e incrementa a versão ao confirmar, sem lock de linha.
+                entityManager.lock(cliente, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            }
+            return clienteRepository.saveAndFlush(cliente);
+        } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+            throw new ResponseStatusException(
+                    versaoEsperada != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT,
+                    "Cliente ID: " + id + " foi alterado por outra requisição"
+            );
+        } catch (DataIntegrityViolationException e) {
+            if (violacaoCpfUnico(e)) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT, "CPF já cadastrado: " + cliente.getCpf());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * O cliente continua no fragmento do seu ID, mas um cliente novo com o mesmo CPF iria para o fragmento do hash do
+     * CPF, fora do alcance da restrição de unicidade deste banco. Por isso o CPF novo é procurado nos dois.
+     */
+    private boolean cpfEmUso(String cpf) {
+        if (clienteRepository.existsByCpf(cpf)) {
+            return true;
+        }
+        int fragmentoDoCpf = fragmentacao.doCpf(cpf);
+        return fragmentoDoCpf != Fragmento.atual()
+                && fragmentacao.lerIsolado(fragmentoDoCpf, () -> clienteRepository.existsByCpf(cpf));
+    }
+
+    private static boolean violacaoCpfUnico(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException violacao) {
+                return RESTRICAO_CPF_UNICO.equalsIgnoreCase(violacao.getConstraintName());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove o cliente, seu endereço e todas as suas simulações com exclusões em massa: o número de comandos
+     * não depende da quantidade de simulações, ao contrário da cascata entidade a entidade do {@code delete}.
+     */
     @Transactional
     public void deletarCliente(Long id) {
         log.info("Deletando cliente ID: {}", id);
 
         Cliente cliente = buscarPorId(id);
-        clienteRepository.delete(cliente);
-        log.info("Cliente deletado com sucesso: {}", cliente.getNome());
+        String nome = cliente.getNome();
+        Long enderecoId = cliente.getEndereco() != null ? cliente.getEndereco().getId() : null;
+
+        int simulacoes = simulacaoRepository.deleteByClienteIdEmMassa(id);
+        removerClienteEEndereco(id, enderecoId);
+        cacheRespostas.invalidarTudoAposCommit();
+        log.info("Cliente deletado com sucesso: {} ({} simulações)", nome, simulacoes);
+    }
+
+    /**
+     * Exclusão para clientes com históricos muito grandes: as simulações são removidas em lotes de
+     * {@code clientes.exclusao.tamanho-lote}, cada um na sua transação, para que nenhum lock fique retido por
+     * muito tempo. O cliente e o endereço são removidos por último, junto com as simulações restantes.
+     */
+    @Async
+    public void deletarClienteEmLotes(Long id) {
+        log.info("Deletando cliente ID: {} em lotes de {} simulações", id, tamanhoLoteExclusao);
+
+        long total = 0;
+        Integer removidas;
+        do {
+            removidas = transactionTemplate.execute(
+                    status -> simulacaoRepository.deleteLoteByClienteId(id, tamanhoLoteExclusao));
+            total += removidas != null ? removidas : 0;
+        } while (removidas != null && removidas == tamanhoLoteExclusao);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Long enderecoId = clienteRepository.findById(id)
+                    .map(Cliente::getEndereco)
+                    .map(Endereco::getId)
+                    .orElse(null);
+            simulacaoRepository.deleteByClienteIdEmMassa(id);
+            removerClienteEEndereco(id, enderecoId);
+            cacheRespostas.invalidarTudoAposCommit();
+        });
+        log.info("Cliente ID: {} deletado em lotes ({} simulações)", id, total);
+    }
+
+    private void removerClienteEEndereco(Long clienteId, Long enderecoId) {
+        clienteRepository.deleteByIdEmMassa(clienteId);
+        if (enderecoId != null) {
+            enderecoRepository.deleteByIdEmMassa(enderecoId);
+        }
+    }
+
+    private static boolean mesclarEndereco(Cliente cliente, JsonNode alteracoes) {
+        if (alteracoes.isNull()) {
+            boolean possuia = cliente.getEndereco() != null;
+            cliente.setEndereco(null);
+            return possuia;
+        }
+        if (!alteracoes.isObject()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo inválido: endereco");
+        }
+        validarCampos(alteracoes, CAMPOS_ENDERECO::containsKey);
+
+        Endereco endereco = cliente.getEndereco();
+        if (endereco == null) {
+            endereco = new Endereco();
+            for (String campo : CAMPOS_ENDERECO.keySet()) {
+                if (!alteracoes.has(campo)) {
+                    throw new ResponseStatusException(
+                            HttpStatus.BAD_REQUEST, "Campo obrigatório para novo endereço: endereco." + campo);
+                }
+            }
+            cliente.setEndereco(endereco);
+        }
+
+        boolean alterado = endereco.getId() == null;
+        alterado |= mesclar(alteracoes, "rua", endereco, Endereco::getRua, endereco::setRua);
+        alterado |= mesclar(alteracoes, "numero", endereco, Endereco::getNumero, endereco::setNumero);
+        alterado |= mesclar(alteracoes, "bairro", endereco, Endereco::getBairro, endereco::setBairro);
+        alterado |= mesclar(alteracoes, "cep", endereco, Endereco::getCep, endereco::setCep);
+        alterado |= mesclar(alteracoes, "cidade", endereco, Endereco::getCidade, endereco::setCidade);
+        alterado |= mesclar(alteracoes, "estado", endereco, Endereco::getEstado, endereco::setEstado);
+        return alterado;
+    }
+
+    private static boolean mesclar(JsonNode alteracoes, String campo, Endereco endereco,
+                                   Function<Endereco, String> leitor, Consumer<String> escritor) {
+        if (!alteracoes.has(campo)) {
+            return false;
+        }
+        String valor = texto(alteracoes, campo, CAMPOS_ENDERECO.get(campo));
+        if (Objects.equals(valor, leitor.apply(endereco))) {
+            return false;
+        }
+        escritor.accept(valor);
+        return true;
+    }
+
+    private static void validarCampos(JsonNode alteracoes, Predicate<String> permitido) {
+        Iterator<String> campos = alteracoes.fieldNames();
+        while (campos.hasNext()) {
+            String campo = campos.next();
+            if (!permitido.test(campo)) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo não pode ser alterado: " + campo);
+            }
+        }
+    }
+
+    private static String texto(JsonNode alteracoes, String campo, int tamanhoMaximo) {
+        JsonNode valor = alteracoes.get(campo);
+        if (!valor.isTextual() || valor.asText().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Campo obrigatório inválido: " + campo);
+        }
+        if (valor.asText().length() > tamanhoMaximo) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST, "Campo " + campo + " excede " + tamanhoMaximo + " caracteres");
+        }
+        return valor.asText();
     }
 
     private static void atualizaEndereco(Cliente clienteAtualizado, Cliente clienteExistente) {
@@ -108,9 +423,30 @@ public class ClienteService {
      * @return Lista com os nomes dos clientes da lista fornecida que moram na cidade e estado fornecida.
      */
     public List<String> calculaNomesClientesParaCidadeEstado(List<Cliente> clientes, String cidade, String estado) {
-        return clientes.stream().filter(c -> cidade.equalsIgnoreCase(c.getEndereco().getCidade())
-                && estado.equalsIgnoreCase(c.getEndereco().getEstado())).map(Cliente::getNome)
+        Map<Long, Endereco> carregados = carregarEnderecos(clientes);
+        return clientes.stream().filter(c -> {
+                    Endereco endereco = carregados.getOrDefault(c.getId(), c.getEndereco());
+                    return cidade.equalsIgnoreCase(endereco.getCidade())
+                            && estado.equalsIgnoreCase(endereco.getEstado());
+                }).map(Cliente::getNome)
                 .toList();
     }
 
-}
\ No newline at end of file
+    /**
+     * Carrega numa consulta só os endereços ainda não inicializados, em vez de um por cliente durante o filtro. Usa o
+     * que a consulta devolve, e não o proxy do cliente recebido, para funcionar também com clientes fora da sessão.
+     */
+    private Map<Long, Endereco> carregarEnderecos(List<Cliente> clientes) {
+        List<Long> pendentes = clientes.stream()
+                .filter(cliente -> cliente.getId() != null && !Hibernate.isInitialized(cliente.getEndereco()))
+                .map(Cliente::getId)
+                .toList();
+        Map<Long, Endereco> enderecos = new HashMap<>();
+        if (!pendentes.isEmpty()) {
+            for (Cliente cliente : clienteRepository.findByIdIn(pendentes)) {
+                enderecos.put(cliente.getId(), cliente.getEndereco());
+            }
+        }
+        return enderecos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.cashme.interview.service;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Exportação CSV das simulações de um cliente feita pelo próprio Postgres: um {@code COPY (SELECT ...) TO STDOUT}
+ * lido pelo {@code CopyManager} do PgJDBC e copiado direto para a saída, sem passar por entidades.
+ * <p>
+ * Produz as mesmas colunas de {@link SimulacaoService#gerarRelatorioCsv}: data em {@code dd/MM/yyyy}, hora em
+ * {@code HH:mm:ss}, valores com duas casas e o nome do cliente sempre entre aspas (aspas internas são escapadas
+ * conforme o CSV padrão). As linhas saem ordenadas por ID.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExportacaoCsvCopy {
+
+    private static final byte[] CABECALHO = SimulacaoService.CABECALHO_CSV.getBytes(StandardCharsets.UTF_8);
+
+    private static final String COPY_SIMULACOES_DO_CLIENTE = """
+            COPY (
+                SELECT s.id,
+                       to_char(s.data_hora, 'DD/MM/YYYY'),
+                       to_char(s.data_hora, 'HH24:MI:SS'),
+                       s.valor_solicitado,
+                       s.valor_garantia,
+                       s.quantidade_meses,
+                       s.taxa_juros_mensal,
+                       c.id,
+                       c.nome AS cliente_nome,
+                       c.cpf
+                FROM simulacoes s
+                JOIN clientes c ON c.id = s.cliente_id
+                WHERE s.cliente_id = %d
+                ORDER BY s.id
+            ) TO STDOUT WITH (FORMAT csv, FORCE_QUOTE (cliente_nome))
+            """;
+
+    private final DataSource dataSource;
+
+    /**
+     * Escreve o CSV completo, com cabeçalho, das simulações do cliente.
+     *
+     * @return quantidade de linhas de dados escritas
+     */
+    public long exportar(Long clienteId, OutputStream saida) throws IOException {
+        try (Connection conexao = dataSource.getConnection()) {
+            saida.write(CABECALHO);
+            return conexao.unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyOut(COPY_SIMULACOES_DO_CLIENTE.formatted(clienteId), saida);
+        } catch (SQLException e) {
+            throw new IOException("Falha ao exportar simulações do cliente " + clienteId + " via COPY", e);
+        }
+    }
+}
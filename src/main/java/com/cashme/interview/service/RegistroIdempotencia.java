@@ -0,0 +1,95 @@
+package com.cashme.interview.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Guarda em memória, por chave de idempotência, o resultado das operações de escrita já concluídas, para
+ * que retentativas com a mesma chave recebam a mesma resposta em vez de repetir a operação.
+ * <p>
+ * O número de chaves é limitado (as menos usadas são descartadas) e cada chave expira após o TTL.
+ * Execuções concorrentes com a mesma chave aguardam a primeira; se ela falhar, a chave é liberada.
+ */
+@Component
+public class RegistroIdempotencia {
+
+    private final long ttlNanos;
+    private final Map<String, Registro> registros;
+
+    public RegistroIdempotencia(@Value("${idempotencia.maximo-chaves:100000}") int maximoChaves,
+                                @Value("${idempotencia.ttl:24h}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        this.registros = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Registro> eldest) {
+                return size() > maximoChaves;
+            }
+        };
+    }
+
+    /**
+     * Executa {@code operacao} uma única vez por chave.
+     *
+     * @param chave chave de idempotência; quando nula a operação é sempre executada
+     * @param requisicao conteúdo da requisição, comparado ao da primeira execução com a mesma chave
+     * @param operacao operação a executar
+     * @return o resultado da primeira execução bem-sucedida com a chave
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T executar(String chave, Object requisicao, Supplier<T> operacao) {
+        if (chave == null || chave.isBlank()) {
+            return operacao.get();
+        }
+
+        Registro novo = new Registro(requisicao, new CompletableFuture<>(), System.nanoTime() + ttlNanos);
+        Registro existente;
+        synchronized (registros) {
+            existente = registros.get(chave);
+            if (existente != null && System.nanoTime() - existente.expiraEm() > 0) {
+                registros.remove(chave);
+                existente = null;
+            }
+            if (existente == null) {
+                registros.put(chave, novo);
+            }
+        }
+
+        if (existente != null) {
+            if (!existente.requisicao().equals(requisicao)) {
+                throw new ResponseStatusException(
+                        HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key já utilizada com outra requisição: " + chave
+                );
+            }
+            try {
+                return (T) existente.resultado().join();
+            } catch (CompletionException e) {
+                return executar(chave, requisicao, operacao);
+            }
+        }
+
+        try {
+            T valor = operacao.get();
+            novo.resultado().complete(valor);
+            return valor;
+        } catch (RuntimeException e) {
+            synchronized (registros) {
+                registros.remove(chave, novo);
+            }
+            novo.resultado().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private record Registro(Object requisicao, CompletableFuture<Object> resultado, long expiraEm) {
+    }
+}
@@ -1,22 +1,45 @@
 package com.cashme.interview.service;
 
+import com.cashme.interview.cache.CacheRespostas;
+import com.cashme.interview.dto.SimulacaoRequisicao;
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.eventos.EventosSimulacoes;
+import com.cashme.interview.fragmentacao.Fragmentacao;
 import com.cashme.interview.model.Cliente;
+import com.cashme.interview.model.Dinheiro;
 import com.cashme.interview.model.Simulacao;
 import com.cashme.interview.repository.ClienteRepository;
 import com.cashme.interview.repository.SimulacaoRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +48,15 @@ public class SimulacaoService {
 
     private final SimulacaoRepository simulacaoRepository;
     private final ClienteRepository clienteRepository;
+    private final EntityManager entityManager;
+    private final CacheRespostas cacheRespostas;
+    private final Fragmentacao fragmentacao;
+    private final EventosSimulacoes eventosSimulacoes;
+
+    static final int MAX_CLIENTES_POR_EXPORTACAO = 10_000;
+
+    public static final String CABECALHO_CSV =
+            "ID,Data,Hora,ValorSolicitado,ValorGarantia,Meses,TaxaJuros,ClienteID,ClienteNome,ClienteCPF\n";
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss");
@@ -36,9 +68,8 @@ public class SimulacaoService {
         return simulacaoRepository.findByClienteId(clienteId, pageable);
     }
 
-    @Transactional(readOnly = true)
     public List<Simulacao> listarTodas() {
-        return simulacaoRepository.findAll();
+        return fragmentacao.reunir(simulacaoRepository::findAllByOrderByIdAsc, Comparator.comparing(Simulacao::getId));
     }
 
     @Transactional(readOnly = true)
@@ -55,47 +86,103 @@ public class SimulacaoService {
         return simulacaoRepository.findByClienteId(clienteId);
     }
 
+    public boolean possuiSimulacoes(Long clienteId) {
+        validarClienteExistente(clienteId);
+        return simulacaoRepository.existsByClienteId(clienteId);
+    }
+
+    /**
+     * Simulações do cliente confirmadas depois da posição {@code ultimaOrdem}, na ordem dos commits; sem ela, ou com
+     * uma além da última registrada, nenhuma, a partir da última. A leitura roda fora do {@code EntityManager} da
+     * requisição, que no acompanhamento por eventos fica aberto enquanto durar a assinatura.
+     */
+    public EventosSimulacoes.Reenvio buscarNovasDoCliente(Long clienteId, Long ultimaOrdem, int limite) {
+        return fragmentacao.lerIsolado(fragmentacao.doCliente(clienteId), () -> {
+            long registradas = clienteRepository.findSimulacoesRegistradasById(clienteId)
+                    .orElseThrow(() -> clienteNaoEncontrado(clienteId));
+            if (ultimaOrdem == null || ultimaOrdem >= registradas) {
+                return new EventosSimulacoes.Reenvio(registradas, List.of());
+            }
+            return new EventosSimulacoes.Reenvio(ultimaOrdem, simulacaoRepository
+                    .findByClienteIdAndOrdemNoClienteGreaterThanOrderByOrdemNoClienteAsc(clienteId, ultimaOrdem,
+                            Limit.of(limite)));
+        });
+    }
+
     @Transactional
     public Simulacao criarSimulacaoEspecifica(Long clienteId) {
-        Cliente cliente = clienteRepository.findById(clienteId)
-                .orElseThrow(() -> new ResponseStatusException(
-                        HttpStatus.NOT_FOUND,
-                        "Cliente não encontrado com ID: " + clienteId
-                ));
+        long ordem = registrarSimulacoes(clienteId, 1);
 
         Simulacao simulacao = new Simulacao();
-        simulacao.setCliente(cliente);
+        simulacao.setCliente(clienteRepository.getReferenceById(clienteId));
+        simulacao.setOrdemNoCliente(ordem);
         simulacao.setDataHora(LocalDateTime.of(2024, 6, 15, 10, 30, 26));
         simulacao.setValorSolicitado(new BigDecimal("300000.00"));
         simulacao.setValorGarantia(new BigDecimal("1000000.00"));
         simulacao.setQuantidadeMeses(150);
         simulacao.setTaxaJurosMensal(new BigDecimal("2.00"));
 
-        return simulacaoRepository.save(simulacao);
+        Simulacao salva = simulacaoRepository.save(simulacao);
+        cacheRespostas.invalidarClienteAposCommit(clienteId);
+        eventosSimulacoes.publicarAposCommit(clienteId, List.of(salva));
+        return salva;
+    }
+
+    /**
+     * Cria uma simulação sem carregar o cliente: a existência dele é conferida ao reservar a posição da simulação.
+     */
+    @Transactional
+    public Simulacao criarSimulacao(Long clienteId, SimulacaoRequisicao requisicao) {
+        return criarSimulacoes(clienteId, List.of(requisicao)).getFirst();
+    }
+
+    /**
+     * Cria várias simulações do cliente em uma única transação. Os IDs vêm em blocos da sequência, então
+     * o Hibernate envia os inserts em batches JDBC.
+     */
+    @Transactional
+    public List<Simulacao> criarSimulacoes(Long clienteId, List<SimulacaoRequisicao> requisicoes) {
+        long ordem = registrarSimulacoes(clienteId, requisicoes.size()) - requisicoes.size();
+        Cliente cliente = clienteRepository.getReferenceById(clienteId);
+        LocalDateTime agora = LocalDateTime.now();
+
+        List<Simulacao> simulacoes = new ArrayList<>(requisicoes.size());
+        for (SimulacaoRequisicao requisicao : requisicoes) {
+            Simulacao simulacao = new Simulacao(
+                    cliente,
+                    requisicao.dataHora() != null ? requisicao.dataHora() : agora,
+                    requisicao.valorSolicitado(),
+                    requisicao.valorGarantia(),
+                    requisicao.quantidadeMeses(),
+                    requisicao.taxaJurosMensal());
+            simulacao.setOrdemNoCliente(++ordem);
+            simulacoes.add(simulacao);
+        }
+
+        List<Simulacao> salvas = simulacaoRepository.saveAll(simulacoes);
+        simulacaoRepository.flush();
+        cacheRespostas.invalidarClienteAposCommit(clienteId);
+        eventosSimulacoes.publicarAposCommit(clienteId, salvas);
+        return salvas;
+    }
+
+    /**
+     * Reserva as posições das próximas {@code quantidade} simulações do cliente, que fica bloqueado até o commit, e
+     * devolve a última delas.
+     */
+    private long registrarSimulacoes(Long clienteId, int quantidade) {
+        return clienteRepository.registrarSimulacoes(clienteId, quantidade)
+                .orElseThrow(() -> clienteNaoEncontrado(clienteId));
     }
 
     public String gerarRelatorioTxt(List<Simulacao> simulacoes) {
         Cliente cliente = simulacoes.getFirst().getCliente();
 
         StringBuilder sb = new StringBuilder();
-        sb.append("RELATÓRIO DE SIMULAÇÕES\n");
-        sb.append("========================\n\n");
-        sb.append("Cliente: ").append(cliente.getNome()).append("\n");
-        sb.append("CPF: ").append(cliente.getCpf()).append("\n");
-        sb.append("Total de simulações: ").append(simulacoes.size()).append("\n\n");
-
-        sb.append(String.format("%-5s | %-20s | %-15s | %-15s | %-10s | %-10s\n",
-                "ID", "Data/Hora", "Valor Solicitado", "Valor Garantia", "Meses", "Taxa %"));
-        sb.append("----------------------------------------------------------------------------------------\n");
+        appendCabecalhoTxt(sb, cliente, simulacoes.size());
 
         for (Simulacao sim : simulacoes) {
-            sb.append(String.format("%-5d | %-20s | %-15.2f | %-15.2f | %-10d | %-10.2f\n",
-                    sim.getId(),
-                    sim.getDataHora().format(DATE_TIME_FORMATTER),
-                    sim.getValorSolicitado(),
-                    sim.getValorGarantia(),
-                    sim.getQuantidadeMeses(),
-                    sim.getTaxaJurosMensal()));
+            appendLinhaTxt(sb, sim);
         }
 
         return sb.toString();
@@ -103,31 +190,189 @@ public class SimulacaoService {
 
     public String gerarRelatorioCsv(List<Simulacao> simulacoes) {
         StringBuilder sb = new StringBuilder();
-        sb.append("ID,Data,Hora,ValorSolicitado,ValorGarantia,Meses,TaxaJuros,ClienteID,ClienteNome,ClienteCPF\n");
+        sb.append(CABECALHO_CSV);
 
         for (Simulacao sim : simulacoes) {
-            sb.append(sim.getId()).append(",")
-                    .append(sim.getDataHora().format(DATE_FORMATTER)).append(",")
-                    .append(sim.getDataHora().format(TIME_FORMATTER)).append(",")
-                    .append(sim.getValorSolicitado()).append(",")
-                    .append(sim.getValorGarantia()).append(",")
-                    .append(sim.getQuantidadeMeses()).append(",")
-                    .append(sim.getTaxaJurosMensal()).append(",")
-                    .append(sim.getCliente().getId()).append(",")
-                    .append("\"").append(sim.getCliente().getNome()).append("\",")
-                    .append(sim.getCliente().getCpf())
-                    .append("\n");
+            appendLinhaCsv(sb, sim);
         }
 
         return sb.toString();
     }
 
-    private void validarClienteExistente(Long clienteId) {
-        if (!clienteRepository.existsById(clienteId)) {
+    /**
+     * Valida o lote de clientes de uma exportação em ZIP antes de a resposta começar a ser escrita.
+     *
+     * @param clienteIds IDs informados na requisição
+     * @return IDs sem repetições, na ordem em que foram informados
+     */
+    public List<Long> validarLoteExportacao(List<Long> clienteIds) {
+        if (clienteIds == null || clienteIds.isEmpty()) {
             throw new ResponseStatusException(
-                    HttpStatus.NOT_FOUND,
-                    "Cliente não encontrado com ID: " + clienteId
+                    HttpStatus.BAD_REQUEST,
+                    "Informe ao menos um cliente para exportação"
             );
         }
+
+        List<Long> distintos = clienteIds.stream().distinct().toList();
+        if (distintos.size() > MAX_CLIENTES_POR_EXPORTACAO) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "Máximo de " + MAX_CLIENTES_POR_EXPORTACAO + " clientes por exportação"
+            );
+        }
+        return distintos;
+    }
+
+    /**
+     * Escreve um ZIP com um arquivo por cliente (mesmo conteúdo das exportações individuais) lendo as
+     * simulações com um cursor ordenado por cliente em cada fragmento, um fragmento depois do outro. Cada linha é
+     * escrita e descartada do contexto de persistência em seguida, então nenhum arquivo é montado inteiro em memória.
+     * Clientes inexistentes ou sem simulações não geram arquivo.
+     *
+     * @param clienteIds clientes a exportar, já validados por {@link #validarLoteExportacao(List)}
+     * @param txt {@code true} para o formato TXT, {@code false} para CSV
+     * @param saida stream de destino; não é fechado por este método
+     */
+    public void exportarZip(List<Long> clienteIds, boolean txt, OutputStream saida) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(saida, StandardCharsets.UTF_8);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+
+        try {
+            fragmentacao.agruparClientes(clienteIds).forEach((fragmento, doFragmento) ->
+                    fragmentacao.lerEm(fragmento, () -> {
+                        try {
+                            escreverArquivosZip(doFragmento, txt, zip, writer);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return null;
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        zip.finish();
+        saida.flush();
+    }
+
+    private void escreverArquivosZip(List<Long> clienteIds, boolean txt, ZipOutputStream zip, Writer writer)
+            throws IOException {
+        Map<Long, Long> totais = txt ? contarPorCliente(clienteIds) : Map.of();
+        StringBuilder sb = new StringBuilder(256);
+        Long clienteAtual = null;
+
+        try (Stream<Simulacao> simulacoes = simulacaoRepository.streamByClienteIdIn(clienteIds)) {
+            Iterator<Simulacao> iterator = simulacoes.iterator();
+            while (iterator.hasNext()) {
+                Simulacao sim = iterator.next();
+                Cliente cliente = sim.getCliente();
+
+                if (!cliente.getId().equals(clienteAtual)) {
+                    if (clienteAtual != null) {
+                        writer.flush();
+                        zip.closeEntry();
+                    }
+                    clienteAtual = cliente.getId();
+                    zip.putNextEntry(new ZipEntry(
+                            "simulacoes_cliente_" + clienteAtual + (txt ? ".txt" : ".csv")));
+
+                    sb.setLength(0);
+                    if (txt) {
+                        appendCabecalhoTxt(sb, cliente, totais.getOrDefault(clienteAtual, 0L));
+                    } else {
+                        sb.append(CABECALHO_CSV);
+                    }
+                    writer.append(sb);
+                }
+
+                sb.setLength(0);
+                if (txt) {
+                    appendLinhaTxt(sb, sim);
+                } else {
+                    appendLinhaCsv(sb, sim);
+                }
+                writer.append(sb);
+                entityManager.detach(sim);
+            }
+        }
+
+        if (clienteAtual != null) {
+            writer.flush();
+            zip.closeEntry();
+        }
+    }
+
+    private Map<Long, Long> contarPorCliente(List<Long> clienteIds) {
+        Map<Long, Long> totais = new HashMap<>();
+        for (Object[] linha : simulacaoRepository.countByClienteIdIn(clienteIds)) {
+            totais.put((Long) linha[0], (Long) linha[1]);
+        }
+        return totais;
+    }
+
+    private static void appendCabecalhoTxt(StringBuilder sb, Cliente cliente, long total) {
+        sb.append("RELATÓRIO DE SIMULAÇÕES\n");
+        sb.append("========================\n\n");
+        sb.append("Cliente: ").append(cliente.getNome()).append("\n");
+        sb.append("CPF: ").append(cliente.getCpf()).append("\n");
+        sb.append("Total de simulações: ").append(total).append("\n\n");
+
+        sb.append(String.format("%-5s | %-20s | %-15s | %-15s | %-10s | %-10s\n",
+                "ID", "Data/Hora", "Valor Solicitado", "Valor Garantia", "Meses", "Taxa %"));
+        sb.append("----------------------------------------------------------------------------------------\n");
+    }
+
+    private static void appendLinhaTxt(StringBuilder sb, Simulacao sim) {
+        sb.append(String.format("%-5d | %-20s | %-15.2f | %-15.2f | %-10d | %-10.2f\n",
+                sim.getId(),
+                sim.getDataHora().format(DATE_TIME_FORMATTER),
+                sim.getValorSolicitado(),
+                sim.getValorGarantia(),
+                sim.getQuantidadeMeses(),
+                sim.getTaxaJurosMensal()));
+    }
+
+    private static void appendLinhaCsv(StringBuilder sb, Simulacao sim) {
+        appendLinhaCsv(sb, sim.getId(), sim.getDataHora(), sim.getValorSolicitadoCentavos(),
+                sim.getValorGarantiaCentavos(), sim.getQuantidadeMeses(), sim.getTaxaJurosMensalPontosBase(),
+                sim.getCliente().getId(), sim.getCliente().getNome(), sim.getCliente().getCpf());
+    }
+
+    /**
+     * Linha do CSV de exportação para uma simulação lida sem entidade, com os dados do cliente informados à parte.
+     */
+    public static void appendLinhaCsv(StringBuilder sb, SimulacaoResposta sim, Long clienteId, String clienteNome,
+                                      String clienteCpf) {
+        appendLinhaCsv(sb, sim.id(), sim.dataHora(), sim.valorSolicitado(), sim.valorGarantia(),
+                sim.quantidadeMeses(), sim.taxaJurosMensal(), clienteId, clienteNome, clienteCpf);
+    }
+
+    private static void appendLinhaCsv(StringBuilder sb, Long id, LocalDateTime dataHora, long valorSolicitado,
+                                       long valorGarantia, Integer quantidadeMeses, int taxaJurosMensal,
+                                       Long clienteId, String clienteNome, String clienteCpf) {
+        sb.append(id).append(",")
+                .append(dataHora.format(DATE_FORMATTER)).append(",")
+                .append(dataHora.format(TIME_FORMATTER)).append(",");
+        Dinheiro.acrescentar(sb, valorSolicitado).append(",");
+        Dinheiro.acrescentar(sb, valorGarantia).append(",");
+        sb.append(quantidadeMeses).append(",");
+        Dinheiro.acrescentar(sb, taxaJurosMensal).append(",")
+                .append(clienteId).append(",")
+                .append("\"").append(clienteNome).append("\",")
+                .append(clienteCpf)
+                .append("\n");
+    }
+
+    private void validarClienteExistente(Long clienteId) {
+        if (!clienteRepository.existsById(clienteId)) {
+            throw clienteNaoEncontrado(clienteId);
+        }
+    }
+
+    private static ResponseStatusException clienteNaoEncontrado(Long clienteId) {
+        return new ResponseStatusException(
+                HttpStatus.NOT_FOUND,
+                "Cliente não encontrado com ID: " + clienteId
+        );
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+-- Esquema criado até aqui pelo hibernate.ddl-auto=update. Bancos já existentes entram com baseline nesta versão.
+
+create table enderecos (
+    id bigint generated by default as identity,
+    rua varchar(100) not null,
+    numero varchar(10) not null,
+    bairro varchar(50) not null,
+    cep varchar(9) not null,
+    cidade varchar(50) not null,
+    estado varchar(2) not null,
+    primary key (id)
+);
+
+create table clientes (
+    id bigint generated by default as identity,
+    cpf varchar(11) not null unique,
+    nome varchar(100) not null,
+    endereco_id bigint unique,
+    primary key (id)
+);
+
+create table simulacoes (
+    id bigint generated by default as identity,
+    cliente_id bigint not null,
+    data_hora timestamp(6) not null,
+    valor_solicitado numeric(15,2) not null,
+    valor_garantia numeric(15,2) not null,
+    quantidade_meses integer not null,
+    taxa_juros_mensal numeric(5,2) not null,
+    primary key (id)
+);
+
+alter table clientes
+    add constraint fk_clientes_endereco foreign key (endereco_id) references enderecos;
+
+alter table simulacoes
+    add constraint fk_simulacoes_cliente foreign key (cliente_id) references clientes;
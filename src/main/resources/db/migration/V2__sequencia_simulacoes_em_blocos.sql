@@ -0,0 +1,10 @@
+-- Simulacao passa a usar o optimizer pooled (allocationSize = 50): cada nextval reserva o bloco (valor - 49 .. valor),
+-- o que libera o Hibernate para agrupar os inserts em batch. A sequência identity é trocada por uma sequência
+-- comum, visível para o Hibernate, posicionada após o maior ID existente.
+alter table simulacoes alter column id drop identity if exists;
+
+create sequence simulacoes_id_seq increment by 50 owned by simulacoes.id;
+
+select setval('simulacoes_id_seq', coalesce((select max(id) from simulacoes), 0) + 50, false);
+
+alter table simulacoes alter column id set default nextval('simulacoes_id_seq');
@@ -0,0 +1,2 @@
+-- Todas as leituras e a exclusão em massa de simulações filtram por cliente_id.
+create index if not exists idx_simulacoes_cliente_id on simulacoes (cliente_id);
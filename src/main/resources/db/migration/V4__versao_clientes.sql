@@ -0,0 +1,2 @@
+-- Versão para controle otimista de concorrência nas atualizações de clientes.
+alter table clientes add column versao bigint not null default 0;
@@ -0,0 +1,16 @@
+-- Busca de clientes por nome (aproximada, sem diferenciar acentos e maiúsculas) e por prefixo de CPF.
+create extension if not exists pg_trgm;
+create extension if not exists unaccent;
+
+-- Forma do nome usada na busca. Imutável para poder ser indexada; o dicionário vai explícito para não depender
+-- do search_path.
+create function normalizar_busca(texto text) returns text
+    language sql immutable parallel safe strict
+    as $$ select lower(public.unaccent('public.unaccent'::regdictionary, texto)) $$;
+
+-- GiST e não GIN: só o GiST devolve as linhas em ordem de semelhança (operador <<->), então a busca para ao
+-- completar a página em vez de ranquear todos os candidatos.
+create index idx_clientes_nome_trgm on clientes using gist (normalizar_busca(nome) gist_trgm_ops);
+
+-- O índice único de cpf, na collation do banco, não atende LIKE 'prefixo%'.
+create index idx_clientes_cpf_prefixo on clientes (cpf text_pattern_ops);
@@ -0,0 +1,10 @@
+-- Resultado mais recente das regras de elegibilidade para cada simulação. motivos é um bitmask de
+-- MotivoInelegibilidade (1 = LTV acima do limite, 2 = prazo abaixo do mínimo, 4 = prazo acima do máximo,
+-- 8 = taxa abaixo da mínima, 16 = taxa acima da máxima); zero significa elegível.
+create table elegibilidade_simulacoes (
+    simulacao_id bigint primary key references simulacoes (id) on delete cascade,
+    elegivel boolean not null,
+    motivos integer not null,
+    ltv numeric(19, 2) not null,
+    avaliada_em timestamp not null
+);
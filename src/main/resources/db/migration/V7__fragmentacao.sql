@@ -0,0 +1,22 @@
+-- Com mais de um fragmento, cada banco só gera IDs que pertencem a ele: clientes com id % total = fragmento, pela
+-- identity com incremento igual ao total, e simulações com o fragmento nos bits acima do 48º, pela sequência em
+-- blocos. Os valores vêm do FlywayConfig; com um único banco nada muda.
+do $$
+declare
+    fragmento constant bigint := ${fragmento};
+    total constant bigint := ${total_fragmentos};
+    proximo_cliente bigint;
+begin
+    if total > 1 then
+        select coalesce(max(id), 0) + 1 into proximo_cliente from clientes;
+        proximo_cliente := proximo_cliente + ((fragmento - proximo_cliente) % total + total) % total;
+        execute format('alter table clientes alter column id set increment by %s restart with %s',
+                       total, proximo_cliente);
+
+        if fragmento > 0 then
+            perform setval('simulacoes_id_seq',
+                           greatest((select coalesce(max(id), 0) from simulacoes), fragmento << 48) + 50, false);
+        end if;
+    end if;
+end
+$$;
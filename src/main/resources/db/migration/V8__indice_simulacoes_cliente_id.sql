@@ -0,0 +1,5 @@
+-- As leituras reativas paginam as simulações de um cliente por ID (cliente_id = ? and id > ? order by id limit ?).
+-- Com o ID no índice cada página é uma faixa dele, sem ordenar todas as simulações do cliente; as consultas que só
+-- filtram por cliente_id usam o mesmo índice.
+create index if not exists idx_simulacoes_cliente_id_id on simulacoes (cliente_id, id);
+drop index if exists idx_simulacoes_cliente_id;
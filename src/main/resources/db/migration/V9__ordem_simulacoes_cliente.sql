@@ -0,0 +1,20 @@
+-- Posição de cada simulação entre as do cliente na ordem em que as transações confirmaram, para o reenvio de eventos
+-- retomar de onde o cliente parou. O ID não serve: vem em blocos da sequência, e uma transação com ID menor pode
+-- confirmar depois de outra com ID maior. Quem cria simulações soma a quantidade em simulacoes_registradas e fica
+-- com o bloqueio da linha do cliente até o commit, então as posições seguem a ordem dos commits, sem buracos.
+-- As simulações já existentes são numeradas por ID, a melhor ordem disponível para elas.
+alter table clientes add column simulacoes_registradas bigint not null default 0;
+alter table simulacoes add column ordem_no_cliente bigint;
+
+update simulacoes s
+set ordem_no_cliente = o.ordem
+from (select id, row_number() over (partition by cliente_id order by id) as ordem from simulacoes) o
+where o.id = s.id;
+
+update clientes c
+set simulacoes_registradas = s.total
+from (select cliente_id, count(*) as total from simulacoes group by cliente_id) s
+where s.cliente_id = c.id;
+
+alter table simulacoes alter column ordem_no_cliente set not null;
+create unique index idx_simulacoes_cliente_ordem on simulacoes (cliente_id, ordem_no_cliente);
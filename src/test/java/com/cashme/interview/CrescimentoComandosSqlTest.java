@@ -0,0 +1,282 @@
+package com.cashme.interview;
+
+import com.cashme.interview.controller.ClienteController;
+import com.cashme.interview.controller.SimulacaoController;
+import com.cashme.interview.medicao.MedicaoSql;
+import com.cashme.interview.model.Cliente;
+import com.cashme.interview.repository.ClienteRepository;
+import com.cashme.interview.service.ClienteService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roda cada endpoint do {@link ClienteController} e do {@link SimulacaoController} com a base em dois tamanhos e
+ * falha se a quantidade de comandos SQL de algum deles crescer com os dados, o sintoma de um N+1. As contagens vêm
+ * das métricas {@code sql.requisicao.comandos}, que cobrem também as respostas assíncronas.
+ * <p>
+ * Usa o Postgres local dos testes de integração, num banco próprio recriado a cada execução. Um endpoint novo sem
+ * caso aqui também falha o teste.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "cache.respostas.habilitado=false",
+        "eventos.simulacoes.timeout=300ms",
+        "leitura-reativa.porta=0",
+        "spring.jpa.show-sql=false"})
+class CrescimentoComandosSqlTest {
+
+    private static final String URL = System.getenv().getOrDefault("SPRING_DATASOURCE_URL",
+            "jdbc:postgresql://localhost:5432/mydb");
+    private static final String USUARIO = System.getenv().getOrDefault("SPRING_DATASOURCE_USERNAME", "myuser");
+    private static final String SENHA = System.getenv().getOrDefault("SPRING_DATASOURCE_PASSWORD", "mypassword");
+    private static final String BANCO = "crescimento_comandos_sql";
+    private static final AtomicInteger CPFS = new AtomicInteger();
+
+    private static final String SIMULACAO = """
+            {"valorSolicitado": 300000.00, "valorGarantia": 1000000.00, "quantidadeMeses": 120,
+             "taxaJurosMensal": 1.50}""";
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private ClienteService clienteService;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping mapeamentos;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL, USUARIO, SENHA);
+             Statement comando = conexao.createStatement()) {
+            comando.execute("DROP DATABASE IF EXISTS " + BANCO + " WITH (FORCE)");
+            comando.execute("CREATE DATABASE " + BANCO);
+        }
+        registry.add("spring.datasource.url", () -> URL.substring(0, URL.lastIndexOf('/') + 1) + BANCO);
+    }
+
+    @Test
+    void endpoints_NaoDevemExecutarMaisComandosComMaisDados() throws Exception {
+        List<Caso> casos = casos();
+        assertThat(casos.stream().map(Caso::handler).collect(Collectors.toSet()))
+                .as("endpoints sem caso no teste de crescimento")
+                .containsExactlyInAnyOrderElementsOf(handlers());
+
+        Map<String, Long> base = medir(casos, massa(3, 3));
+        Map<String, Long> maior = medir(casos, massa(12, 12));
+
+        Map<String, String> cresceram = new LinkedHashMap<>();
+        base.forEach((handler, comandos) -> {
+            if (maior.get(handler) > comandos) {
+                cresceram.put(handler, comandos + " -> " + maior.get(handler));
+            }
+        });
+        assertThat(cresceram).as("comandos SQL por requisição que cresceram com os dados").isEmpty();
+    }
+
+    @Test
+    void calculaNomesClientesParaCidadeEstado_NaoDeveLerUmEnderecoPorCliente() {
+        long poucos = comandosAoCalcularNomes(massa(2, 0).clientes());
+        long muitos = comandosAoCalcularNomes(massa(10, 0).clientes());
+
+        assertThat(muitos).isEqualTo(poucos);
+    }
+
+    private long comandosAoCalcularNomes(List<Long> ids) {
+        return MedicaoSql.medir(() -> transactionTemplate.executeWithoutResult(status -> {
+            List<Cliente> clientes = clienteRepository.findAllById(ids);
+            assertThat(clienteService.calculaNomesClientesParaCidadeEstado(clientes, "Curitiba", "PR"))
+                    .hasSize(ids.size());
+        })).comandos();
+    }
+
+    private List<Caso> casos() {
+        String clientes = "/api/clientes";
+        String cliente = "/api/clientes/{id}";
+        String doCliente = "/api/simulacoes/cliente/{clienteId}";
+        String csv = doCliente + "/export/csv";
+        return List.of(
+                new Caso("ClienteController#criarCliente", "POST", clientes,
+                        m -> post("/api/clientes", "application/json", novoCliente())),
+                new Caso("ClienteController#listarTodos", "GET", clientes,
+                        m -> get("/api/clientes")),
+                new Caso("ClienteController#buscar", "GET", clientes + "/busca",
+                        m -> get("/api/clientes/busca?termo=Cliente%20Teste")),
+                new Caso("ClienteController#buscarPorId", "GET", cliente,
+                        m -> get("/api/clientes/" + m.cliente())),
+                new Caso("ClienteController#atualizarCliente", "PUT", cliente,
+                        m -> requisicao("/api/clientes/" + m.cliente(), "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(novoCliente())).build()),
+                new Caso("ClienteController#atualizarParcialmente", "PATCH", cliente,
+                        m -> requisicao("/api/clientes/" + m.cliente(), "application/merge-patch+json")
+                                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"nome\": \"Cliente Alterado\", "
+                                        + "\"endereco\": {\"numero\": \"" + CPFS.incrementAndGet() + "\"}}"))
+                                .build()),
+                new Caso("ClienteController#deletarCliente", "DELETE", cliente,
+                        m -> requisicao("/api/clientes/" + m.excluido(), null).DELETE().build()),
+                new Caso("SimulacaoController#listarPorCliente", "GET", doCliente,
+                        // Página menor que as duas massas: a contagem do total é feita nas duas medições.
+                        m -> get("/api/simulacoes/cliente/" + m.cliente() + "?size=2")),
+                new Caso("SimulacaoController#acompanhar", "GET", doCliente + "/eventos",
+                        m -> requisicao("/api/simulacoes/cliente/" + m.cliente() + "/eventos", null)
+                                .header("Last-Event-ID", "0").build()),
+                new Caso("SimulacaoController#exportarTxt", "GET", doCliente + "/export/txt",
+                        m -> get("/api/simulacoes/cliente/" + m.cliente() + "/export/txt")),
+                new Caso("SimulacaoController#exportarCsv", "GET", csv,
+                        m -> get("/api/simulacoes/cliente/" + m.cliente() + "/export/csv")),
+                new Caso("SimulacaoController#exportarCsvViaCopy", "GET", csv,
+                        m -> get("/api/simulacoes/cliente/" + m.cliente() + "/export/csv?motor=copy")),
+                new Caso("SimulacaoController#exportarZip", "POST", "/api/simulacoes/export/zip",
+                        m -> post("/api/simulacoes/export/zip", "application/json",
+                                m.clientes().subList(0, 2).toString())),
+                new Caso("SimulacaoController#listarTodas", "GET", "/api/simulacoes",
+                        m -> get("/api/simulacoes")),
+                new Caso("SimulacaoController#buscarPorId", "GET", "/api/simulacoes/{id}",
+                        m -> get("/api/simulacoes/" + m.simulacao())),
+                new Caso("SimulacaoController#criarSimulacaoEspecifica", "POST", doCliente + "/simulacao-especifica",
+                        m -> post("/api/simulacoes/cliente/" + m.cliente() + "/simulacao-especifica",
+                                "application/json", "")),
+                new Caso("SimulacaoController#criarSimulacao", "POST", doCliente,
+                        m -> post("/api/simulacoes/cliente/" + m.cliente(), "application/json", SIMULACAO)),
+                new Caso("SimulacaoController#criarSimulacoesEmLote", "POST", doCliente + "/lote",
+                        m -> post("/api/simulacoes/cliente/" + m.cliente() + "/lote", "application/json",
+                                "{\"simulacoes\": [" + SIMULACAO + ", " + SIMULACAO + ", " + SIMULACAO + "]}")));
+    }
+
+    private Set<String> handlers() {
+        return mapeamentos.getHandlerMethods().values().stream()
+                .filter(handler -> handler.getBeanType() == ClienteController.class
+                        || handler.getBeanType() == SimulacaoController.class)
+                .map(handler -> handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName())
+                .collect(Collectors.toSet());
+    }
+
+    private Map<String, Long> medir(List<Caso> casos, Massa massa) throws Exception {
+        Map<String, Long> comandos = new LinkedHashMap<>();
+        for (Caso caso : casos) {
+            DistributionSummary resumo = DistributionSummary.builder("sql.requisicao.comandos")
+                    .tags("method", caso.metodo(), "uri", caso.rota())
+                    .register(registry);
+            long registradas = resumo.count();
+            double total = resumo.totalAmount();
+
+            HttpResponse<String> resposta = http.send(caso.requisicao().apply(massa),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(resposta.statusCode()).as(caso.handler() + ": " + resposta.body()).isBetween(200, 299);
+
+            // A métrica é registrada ao fim da requisição, que pode terminar depois da resposta chegar aqui.
+            long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (resumo.count() == registradas && System.nanoTime() < limite) {
+                Thread.sleep(5);
+            }
+            assertThat(resumo.count()).as(caso.handler() + " sem métrica").isEqualTo(registradas + 1);
+            comandos.put(caso.handler(), Math.round(resumo.totalAmount() - total));
+        }
+        return comandos;
+    }
+
+    /**
+     * Acrescenta {@code clientes} clientes com endereço em Curitiba, cada um com {@code simulacoesPorCliente}
+     * simulações, e mais um cliente para ser excluído.
+     */
+    private Massa massa(int clientes, int simulacoesPorCliente) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i <= clientes; i++) {
+            Long endereco = jdbc.queryForObject("""
+                    INSERT INTO enderecos (rua, numero, bairro, cep, cidade, estado)
+                    VALUES ('Rua das Flores', '100', 'Centro', '80000-000', 'Curitiba', 'PR') RETURNING id""",
+                    Long.class);
+            ids.add(jdbc.queryForObject("INSERT INTO clientes (cpf, nome, endereco_id) VALUES (?, ?, ?) RETURNING id",
+                    Long.class, cpf(), "Cliente Teste " + i, endereco));
+        }
+        jdbc.update("""
+                INSERT INTO simulacoes (cliente_id, data_hora, valor_solicitado, valor_garantia, quantidade_meses,
+                                        taxa_juros_mensal, ordem_no_cliente)
+                SELECT c, timestamp '2024-06-15 10:30:00' + s * interval '1 minute', 300000.00, 1000000.00, 120, 1.50, s
+                FROM unnest(?::bigint[]) c, generate_series(1, ?) s""",
+                ids.toArray(Long[]::new), simulacoesPorCliente);
+        jdbc.update("UPDATE clientes SET simulacoes_registradas = ? WHERE id = ANY(?::bigint[])",
+                simulacoesPorCliente, ids.toArray(Long[]::new));
+
+        List<Long> mantidos = ids.subList(0, clientes);
+        Long simulacao = jdbc.query("SELECT min(id) FROM simulacoes WHERE cliente_id = ?",
+                (rs, linha) -> rs.getObject(1, Long.class), mantidos.getFirst()).getFirst();
+        return new Massa(mantidos.getFirst(), simulacao, ids.getLast(), mantidos);
+    }
+
+    private String novoCliente() {
+        return """
+                {"cpf": "%s", "nome": "Cliente Novo", "endereco": {"rua": "Rua XV", "numero": "1",
+                 "bairro": "Centro", "cep": "80000-000", "cidade": "Curitiba", "estado": "PR"}}""".formatted(cpf());
+    }
+
+    private String cpf() {
+        return String.format("%011d", CPFS.incrementAndGet());
+    }
+
+    private HttpRequest get(String caminho) {
+        return requisicao(caminho, null).GET().build();
+    }
+
+    private HttpRequest post(String caminho, String tipo, String corpo) {
+        return requisicao(caminho, tipo).POST(HttpRequest.BodyPublishers.ofString(corpo)).build();
+    }
+
+    private HttpRequest.Builder requisicao(String caminho, String tipo) {
+        HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + caminho));
+        return tipo == null ? requisicao : requisicao.header("Content-Type", tipo);
+    }
+
+    private record Caso(String handler, String metodo, String rota, Function<Massa, HttpRequest> requisicao) {
+    }
+
+    /**
+     * IDs semeados: o cliente consultado (o primeiro), uma simulação dele, o cliente a excluir e os demais.
+     */
+    private record Massa(long cliente, Long simulacao, long excluido, List<Long> clientes) {
+    }
+}
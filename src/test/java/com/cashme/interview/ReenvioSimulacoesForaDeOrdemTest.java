@@ -0,0 +1,131 @@
+package com.cashme.interview;
+
+import com.cashme.interview.dto.SimulacaoRequisicao;
+import com.cashme.interview.eventos.EventosSimulacoes;
+import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.repository.ClienteRepository;
+import com.cashme.interview.service.SimulacaoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reenvio de eventos quando as transações confirmam fora da ordem dos IDs das simulações, o que acontece quando
+ * instâncias diferentes usam blocos diferentes da sequência. Usa o Postgres local num banco próprio, como o
+ * {@link CrescimentoComandosSqlTest}.
+ */
+@SpringBootTest(properties = {"leitura-reativa.porta=0", "spring.jpa.show-sql=false"})
+class ReenvioSimulacoesForaDeOrdemTest {
+
+    private static final String URL = System.getenv().getOrDefault("SPRING_DATASOURCE_URL",
+            "jdbc:postgresql://localhost:5432/mydb");
+    private static final String USUARIO = System.getenv().getOrDefault("SPRING_DATASOURCE_USERNAME", "myuser");
+    private static final String SENHA = System.getenv().getOrDefault("SPRING_DATASOURCE_PASSWORD", "mypassword");
+    private static final String BANCO = "reenvio_simulacoes_fora_de_ordem";
+    private static final AtomicInteger CPFS = new AtomicInteger();
+
+    private static final SimulacaoRequisicao REQUISICAO = new SimulacaoRequisicao(null,
+            new BigDecimal("300000.00"), new BigDecimal("1000000.00"), 120, new BigDecimal("1.50"));
+
+    @Autowired
+    private SimulacaoService simulacaoService;
+
+    @Autowired
+    private ClienteRepository clienteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @DynamicPropertySource
+    static void banco(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection conexao = DriverManager.getConnection(URL, USUARIO, SENHA);
+             Statement comando = conexao.createStatement()) {
+            comando.execute("DROP DATABASE IF EXISTS " + BANCO + " WITH (FORCE)");
+            comando.execute("CREATE DATABASE " + BANCO);
+        }
+        registry.add("spring.datasource.url", () -> URL.substring(0, URL.lastIndexOf('/') + 1) + BANCO);
+    }
+
+    @Test
+    void buscarNovasDoCliente_SimulacaoDeIdMenorConfirmadaDepois_DeveSerReenviada() {
+        long cliente = novoCliente();
+        // Outra instância reserva um bloco da sequência antes desta; a simulação dela terá o ID menor.
+        long idDaOutraInstancia = jdbc.queryForObject("SELECT nextval('simulacoes_id_seq')", Long.class) - 49;
+        Simulacao primeira = simulacaoService.criarSimulacao(cliente, REQUISICAO);
+        assertThat(primeira.getId()).isGreaterThan(idDaOutraInstancia);
+
+        // A transação da outra instância confirma depois, reservando a posição como a aplicação faz.
+        transactionTemplate.executeWithoutResult(status -> jdbc.update("""
+                INSERT INTO simulacoes (id, cliente_id, data_hora, valor_solicitado, valor_garantia, quantidade_meses,
+                                        taxa_juros_mensal, ordem_no_cliente)
+                VALUES (?, ?, now(), 300000.00, 1000000.00, 120, 1.50, ?)""",
+                idDaOutraInstancia, cliente, clienteRepository.registrarSimulacoes(cliente, 1).orElseThrow()));
+
+        // O cliente recebeu a primeira, com a posição dela no ID do evento, e reconectou.
+        EventosSimulacoes.Reenvio reenvio = simulacaoService.buscarNovasDoCliente(cliente,
+                primeira.getOrdemNoCliente(), EventosSimulacoes.MAXIMO_REENVIO);
+
+        assertThat(reenvio.simulacoes()).extracting(Simulacao::getId).containsExactly(idDaOutraInstancia);
+    }
+
+    @Test
+    void registrarSimulacoes_DeveEsperarOCommitDaTransacaoQueReservouAntes() throws Exception {
+        long cliente = novoCliente();
+        CountDownLatch reservada = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+
+        CompletableFuture<Long> primeira = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            long ordem = clienteRepository.registrarSimulacoes(cliente, 2).orElseThrow();
+            reservada.countDown();
+            aguardar(confirmar);
+            return ordem;
+        }));
+        assertThat(reservada.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Long> segunda = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(
+                status -> clienteRepository.registrarSimulacoes(cliente, 1).orElseThrow()));
+
+        Thread.sleep(200);
+        assertThat(segunda).as("reserva antes do commit da primeira").isNotDone();
+        confirmar.countDown();
+
+        assertThat(primeira.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(segunda.get(5, TimeUnit.SECONDS)).isEqualTo(3);
+    }
+
+    private long novoCliente() {
+        Long endereco = jdbc.queryForObject("""
+                INSERT INTO enderecos (rua, numero, bairro, cep, cidade, estado)
+                VALUES ('Rua das Flores', '100', 'Centro', '80000-000', 'Curitiba', 'PR') RETURNING id""",
+                Long.class);
+        return jdbc.queryForObject("INSERT INTO clientes (cpf, nome, endereco_id) VALUES (?, ?, ?) RETURNING id",
+                Long.class, String.format("%011d", CPFS.incrementAndGet()), "Cliente Teste", endereco);
+    }
+
+    private static void aguardar(CountDownLatch sinal) {
+        try {
+            assertThat(sinal.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
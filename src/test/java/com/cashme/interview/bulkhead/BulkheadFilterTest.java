@@ -0,0 +1,76 @@
+package com.cashme.interview.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Bulkhead exportacao =
+            new Bulkhead(ClasseCarga.EXPORTACAO, 1, 0, Duration.ZERO, Duration.ofSeconds(5), registry);
+    private final Bulkhead oltp = new Bulkhead(ClasseCarga.OLTP, 10, 0, Duration.ZERO, Duration.ofSeconds(1), registry);
+    private final BulkheadFilter filter = new BulkheadFilter(List.of(exportacao, oltp));
+
+    @Test
+    void doFilter_ExportacaoSaturada_DeveResponder429SemAfetarOltp() throws Exception {
+        assertThat(exportacao.entrar()).isTrue();
+
+        MockHttpServletResponse recusada = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/simulacoes/cliente/1/export/txt"), recusada,
+                new MockFilterChain());
+
+        assertThat(recusada.getStatus()).isEqualTo(429);
+        assertThat(recusada.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+
+        AtomicReference<ClasseCarga> classeNaCadeia = new AtomicReference<>();
+        MockHttpServletResponse consulta = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/clientes/1"), consulta,
+                (request, response) -> classeNaCadeia.set(ClasseCarga.atual()));
+
+        assertThat(consulta.getStatus()).isEqualTo(200);
+        assertThat(classeNaCadeia).hasValue(ClasseCarga.OLTP);
+        assertThat(oltp.ocupacao()).isZero();
+    }
+
+    @Test
+    void doFilter_Exportacao_DeveExecutarComoExportacaoELiberarAVaga() throws Exception {
+        AtomicReference<ClasseCarga> classeNaCadeia = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/simulacoes/cliente/1/export/csv"),
+                new MockHttpServletResponse(), (request, response) -> classeNaCadeia.set(ClasseCarga.atual()));
+
+        assertThat(classeNaCadeia).hasValue(ClasseCarga.EXPORTACAO);
+        assertThat(ClasseCarga.atual()).isEqualTo(ClasseCarga.OLTP);
+        assertThat(exportacao.ocupacao()).isZero();
+    }
+
+    @Test
+    void classificar_DeveSepararExportacoesDasConsultas() {
+        assertThat(BulkheadFilter.classificar("GET", "/api/simulacoes/cliente/1/export/csv"))
+                .isEqualTo(ClasseCarga.EXPORTACAO);
+        assertThat(BulkheadFilter.classificar("GET", "/api/simulacoes")).isEqualTo(ClasseCarga.EXPORTACAO);
+        assertThat(BulkheadFilter.classificar("POST", "/api/simulacoes/export/zip")).isEqualTo(ClasseCarga.EXPORTACAO);
+        assertThat(BulkheadFilter.classificar("GET", "/api/clientes/1")).isEqualTo(ClasseCarga.OLTP);
+        assertThat(BulkheadFilter.classificar("POST", "/api/simulacoes/cliente/1")).isEqualTo(ClasseCarga.OLTP);
+    }
+
+    @Test
+    void doFilter_EventosDoCliente_NaoDeveOcuparVaga() throws Exception {
+        AtomicReference<Integer> ocupacaoNaCadeia = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/simulacoes/cliente/1/eventos"),
+                new MockHttpServletResponse(), (request, response) -> ocupacaoNaCadeia.set(oltp.ocupacao()));
+
+        assertThat(ocupacaoNaCadeia).hasValue(0);
+    }
+}
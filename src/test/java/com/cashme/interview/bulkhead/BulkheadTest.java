@@ -0,0 +1,55 @@
+package com.cashme.interview.bulkhead;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BulkheadTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void entrar_SemVagaESemFila_DeveRejeitarNaHora() {
+        Bulkhead bulkhead = new Bulkhead(ClasseCarga.EXPORTACAO, 1, 0, Duration.ZERO, Duration.ofSeconds(5), registry);
+
+        assertThat(bulkhead.entrar()).isTrue();
+        assertThat(bulkhead.entrar()).isFalse();
+
+        assertThat(registry.get("bulkhead.rejeicoes").tag("classe", "exportacao").counter().count()).isEqualTo(1);
+        assertThat(registry.get("bulkhead.saturacao").tag("classe", "exportacao").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void entrar_ComFila_DeveAguardarAVagaLiberada() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(ClasseCarga.EXPORTACAO, 1, 1, Duration.ofSeconds(5), Duration.ofSeconds(5),
+                registry);
+        assertThat(bulkhead.entrar()).isTrue();
+
+        CompletableFuture<Boolean> naFila = CompletableFuture.supplyAsync(bulkhead::entrar);
+        while (registry.get("bulkhead.fila").tag("classe", "exportacao").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        assertThat(bulkhead.entrar()).as("fila cheia").isFalse();
+
+        bulkhead.sair();
+        assertThat(naFila.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.ocupacao()).isEqualTo(1);
+    }
+
+    @Test
+    void reservar_DeveDeixarSoAsVagasRestantesParaAsRequisicoes() throws Exception {
+        Bulkhead bulkhead = new Bulkhead(ClasseCarga.EXPORTACAO, 4, 0, Duration.ZERO, Duration.ofSeconds(5), registry);
+
+        bulkhead.reservar(3);
+        assertThat(bulkhead.entrar()).isTrue();
+        assertThat(bulkhead.entrar()).as("vagas reservadas").isFalse();
+
+        bulkhead.liberar(3);
+        assertThat(bulkhead.ocupacao()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.cashme.interview.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheRespostasTest {
+
+    private SimpleMeterRegistry registry;
+    private CacheRespostas cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new CacheRespostas(true, Duration.ofMinutes(1), DataSize.ofKilobytes(8), Duration.ofSeconds(2), registry);
+    }
+
+    @Test
+    void requisicoesConcorrentes_DevemCompartilharACargaDoLider() {
+        CacheRespostas.Voo lider = cache.embarcar("simulacao:1");
+        CacheRespostas.Voo seguidor = cache.embarcar("simulacao:1");
+
+        assertThat(lider.isLider()).isTrue();
+        assertThat(seguidor.isLider()).isFalse();
+
+        CompletableFuture<RespostaCacheada> aguardando = CompletableFuture.supplyAsync(seguidor::aguardar);
+        RespostaCacheada resposta = resposta("{\"id\":1}");
+        cache.pousar(lider, null, resposta);
+
+        assertThat(aguardando.join()).isSameAs(resposta);
+        assertThat(cache.buscar("simulacao:1")).isSameAs(resposta);
+        assertThat(registry.counter("cache.respostas.coalescidas").count()).isEqualTo(1);
+        assertThat(registry.counter("cache.respostas.acertos").count()).isEqualTo(1);
+        assertThat(registry.counter("cache.respostas.faltas").count()).isEqualTo(1);
+    }
+
+    @Test
+    void cargaSemRespostaCacheavel_DeveLiberarSeguidoresSemResultado() {
+        CacheRespostas.Voo lider = cache.embarcar("simulacao:2");
+        CacheRespostas.Voo seguidor = cache.embarcar("simulacao:2");
+
+        cache.pousar(lider, null, null);
+
+        assertThat(seguidor.aguardar()).isNull();
+        assertThat(cache.buscar("simulacao:2")).isNull();
+        assertThat(cache.embarcar("simulacao:2").isLider()).isTrue();
+    }
+
+    @Test
+    void invalidarCliente_DeveRemoverApenasEntradasDoCliente() {
+        cache.pousar(cache.embarcar("cliente:1?"), 1L, resposta("[1]"));
+        cache.pousar(cache.embarcar("cliente:2?"), 2L, resposta("[2]"));
+
+        cache.invalidarCliente(1L);
+
+        assertThat(cache.buscar("cliente:1?")).isNull();
+        assertThat(cache.buscar("cliente:2?")).isNotNull();
+    }
+
+    @Test
+    void cargaIniciadaAntesDeInvalidacao_NaoDeveSerArmazenada() {
+        CacheRespostas.Voo voo = cache.embarcar("cliente:1?");
+        cache.invalidarCliente(1L);
+        cache.pousar(voo, 1L, resposta("[antigo]"));
+
+        assertThat(cache.buscar("cliente:1?")).isNull();
+    }
+
+    @Test
+    void requisicaoAposInvalidacao_NaoDeveAguardarCargaAnterior() {
+        CacheRespostas.Voo anterior = cache.embarcar("cliente:1?");
+        cache.invalidarCliente(1L);
+
+        CacheRespostas.Voo posterior = cache.embarcar("cliente:1?");
+        cache.pousar(anterior, 1L, resposta("[antigo]"));
+
+        assertThat(posterior.isLider()).isTrue();
+        cache.pousar(posterior, 1L, resposta("[novo]"));
+        assertThat(new String(cache.buscar("cliente:1?").corpo())).isEqualTo("[novo]");
+    }
+
+    @Test
+    void limiteDeBytes_DeveDescartarAsEntradasMenosUsadas() {
+        for (int i = 0; i < 20; i++) {
+            cache.pousar(cache.embarcar("simulacao:" + i), null, resposta("x".repeat(900)));
+        }
+
+        assertThat(cache.buscar("simulacao:0")).isNull();
+        assertThat(cache.buscar("simulacao:19")).isNotNull();
+        assertThat(registry.get("cache.respostas.bytes").gauge().value()).isLessThanOrEqualTo(8 * 1024);
+    }
+
+    private static RespostaCacheada resposta(String json) {
+        return new RespostaCacheada("application/json", json.getBytes());
+    }
+}
@@ -0,0 +1,57 @@
+package com.cashme.interview.config;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JacksonConfigTest {
+
+    private final SimulacaoResposta simulacao = new SimulacaoResposta(1L, LocalDateTime.of(2024, 6, 15, 10, 30, 26),
+            30_000_000L, 100_000_000L, 150, 200);
+
+    @Test
+    void moduloPreSerializado_DeveProduzirOMesmoJsonQueOSerializerPadrao() throws Exception {
+        CacheSerializacaoSimulacoes cache = new CacheSerializacaoSimulacoes(true, 10);
+        ObjectMapper padrao = novoMapper();
+        ObjectMapper preSerializado = novoMapper().registerModule(JacksonConfig.criarModuloPreSerializado(cache));
+
+        String esperado = padrao.writeValueAsString(List.of(simulacao, simulacao));
+
+        assertThat(preSerializado.writeValueAsString(List.of(simulacao, simulacao))).isEqualTo(esperado);
+        assertThat(cache.buscar(1L)).isNotNull();
+        assertThat(preSerializado.writeValueAsString(List.of(simulacao, simulacao))).isEqualTo(esperado);
+    }
+
+    @Test
+    void valoresEmCentesimos_DevemSairComoDecimaisDeDuasCasas() throws Exception {
+        String json = novoMapper().writeValueAsString(simulacao);
+
+        assertThat(json).contains("\"valorSolicitado\":300000.00", "\"valorGarantia\":1000000.00",
+                "\"taxaJurosMensal\":2.00");
+    }
+
+    @Test
+    void moduloPreSerializado_Desabilitado_NaoDeveUsarOCache() throws Exception {
+        CacheSerializacaoSimulacoes cache = new CacheSerializacaoSimulacoes(false, 10);
+        ObjectMapper mapper = novoMapper().registerModule(JacksonConfig.criarModuloPreSerializado(cache));
+
+        mapper.writeValueAsString(simulacao);
+
+        assertThat(cache.buscar(1L)).isNull();
+    }
+
+    private static ObjectMapper novoMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new BlackbirdModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -0,0 +1,87 @@
+package com.cashme.interview.config;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.model.Cliente;
+import com.cashme.interview.model.Simulacao;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara a serialização de uma página de simulações como entidade (caminho anterior), como
+ * {@link SimulacaoResposta} com Blackbird e com o JSON pré-serializado em cache.
+ * <p>
+ * Executar com:
+ * <pre>
+ * ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main SerializacaoSimulacoesBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoSimulacoesBenchmark {
+
+    @Param({"10", "1000"})
+    private int quantidade;
+
+    private ObjectMapper mapperEntidade;
+    private ObjectMapper mapperBlackbird;
+    private ObjectMapper mapperPreSerializado;
+
+    private List<Simulacao> entidades;
+    private List<SimulacaoResposta> respostas;
+
+    @Setup
+    public void setUp() {
+        mapperEntidade = novoMapper();
+        mapperBlackbird = novoMapper().registerModule(new BlackbirdModule());
+        mapperPreSerializado = novoMapper()
+                .registerModule(new BlackbirdModule())
+                .registerModule(JacksonConfig.criarModuloPreSerializado(new CacheSerializacaoSimulacoes(true, 100_000)));
+
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+
+        entidades = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            Simulacao simulacao = new Simulacao(cliente, LocalDateTime.of(2024, 6, 15, 10, 30, 26).plusMinutes(i),
+                    new BigDecimal("300000.00"), new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+            simulacao.setId((long) i + 1);
+            entidades.add(simulacao);
+        }
+        respostas = entidades.stream().map(SimulacaoResposta::de).toList();
+    }
+
+    @Benchmark
+    public byte[] entidade() throws Exception {
+        return mapperEntidade.writeValueAsBytes(entidades);
+    }
+
+    @Benchmark
+    public byte[] dtoBlackbird() throws Exception {
+        return mapperBlackbird.writeValueAsBytes(respostas);
+    }
+
+    @Benchmark
+    public byte[] dtoPreSerializado() throws Exception {
+        return mapperPreSerializado.writeValueAsBytes(respostas);
+    }
+
+    private static ObjectMapper novoMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -1,8 +1,10 @@
 package com.cashme.interview.controller;
 
+import com.cashme.interview.dto.ClienteBusca;
 import com.cashme.interview.model.Cliente;
 import com.cashme.interview.model.Endereco;
 import com.cashme.interview.service.ClienteService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -108,6 +113,19 @@ class ClienteControllerTest {
         verify(clienteService, times(1)).buscarPorId(1L);
     }
 
+    @Test
+    void buscar_DeveRetornarFatiaDeResultados() throws Exception {
+        when(clienteService.buscarClientes(eq("joao"), eq(PageRequest.of(0, 5))))
+                .thenReturn(new SliceImpl<>(List.of(new ClienteBusca(1L, "João Silva", "12345678900", 0.8)),
+                        PageRequest.of(0, 5), true));
+
+        mockMvc.perform(get("/api/clientes/busca").param("termo", "joao").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nome").value("João Silva"))
+                .andExpect(jsonPath("$.content[0].relevancia").value(0.8))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
     @Test
     void atualizarCliente_ComIdValido_DeveRetornarClienteAtualizado() throws Exception {
         Cliente clienteAtualizado = new Cliente();
@@ -128,6 +146,23 @@ class ClienteControllerTest {
         verify(clienteService, times(1)).atualizarCliente(eq(1L), any(Cliente.class));
     }
 
+    @Test
+    void atualizarParcialmente_ComIfMatch_DeveRepassarVersaoERetornarETag() throws Exception {
+        cliente.setNome("João Patch");
+        cliente.setVersao(4L);
+        when(clienteService.atualizarParcialmente(eq(1L), any(JsonNode.class), eq(3L))).thenReturn(cliente);
+
+        mockMvc.perform(patch("/api/clientes/{id}", 1L)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content("{\"nome\":\"João Patch\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.nome").value("João Patch"));
+
+        verify(clienteService).atualizarParcialmente(eq(1L), argThat(n -> n.size() == 1 && n.has("nome")), eq(3L));
+    }
+
     @Test
     void deletarCliente_ComIdValido_DeveRetornarNoContent() throws Exception {
         doNothing().when(clienteService).deletarCliente(1L);
@@ -138,4 +173,15 @@ class ClienteControllerTest {
         verify(clienteService, times(1)).deletarCliente(1L);
     }
 
+    @Test
+    void deletarCliente_Assincrono_DeveRetornarAccepted() throws Exception {
+        when(clienteService.buscarPorId(1L)).thenReturn(cliente);
+
+        mockMvc.perform(delete("/api/clientes/{id}", 1L).param("assincrono", "true"))
+                .andExpect(status().isAccepted());
+
+        verify(clienteService, times(1)).deletarClienteEmLotes(1L);
+        verify(clienteService, never()).deletarCliente(1L);
+    }
+
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.cashme.interview.controller;
 
+import com.cashme.interview.dto.LoteSimulacoes;
+import com.cashme.interview.dto.SimulacaoRequisicao;
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.cashme.interview.eventos.EventosSimulacoes;
 import com.cashme.interview.model.Cliente;
 import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.service.ExportacaoCsvCopy;
+import com.cashme.interview.service.RegistroIdempotencia;
 import com.cashme.interview.service.SimulacaoService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpHeaders;
@@ -16,9 +24,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -26,6 +39,9 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 class SimulacaoControllerTest {
@@ -33,6 +49,16 @@ class SimulacaoControllerTest {
     @Mock
     private SimulacaoService simulacaoService;
 
+    @Mock
+    private ExportacaoCsvCopy exportacaoCsvCopy;
+
+    @Spy
+    private RegistroIdempotencia registroIdempotencia = new RegistroIdempotencia(100, Duration.ofMinutes(1));
+
+    @Spy
+    private EventosSimulacoes eventosSimulacoes =
+            new EventosSimulacoes(Duration.ofMinutes(1), Duration.ofMinutes(1), 16, 100, new SimpleMeterRegistry());
+
     @InjectMocks
     private SimulacaoController simulacaoController;
 
@@ -63,6 +89,7 @@ class SimulacaoControllerTest {
         simulacao1.setValorGarantia(new BigDecimal("1000000.00"));
         simulacao1.setQuantidadeMeses(150);
         simulacao1.setTaxaJurosMensal(new BigDecimal("2.00"));
+        simulacao1.setOrdemNoCliente(1L);
 
         simulacao2 = new Simulacao();
         simulacao2.setId(2L);
@@ -72,6 +99,7 @@ class SimulacaoControllerTest {
         simulacao2.setValorGarantia(new BigDecimal("1500000.00"));
         simulacao2.setQuantidadeMeses(180);
         simulacao2.setTaxaJurosMensal(new BigDecimal("1.85"));
+        simulacao2.setOrdemNoCliente(2L);
     }
 
     @Test
@@ -81,13 +109,13 @@ class SimulacaoControllerTest {
 
         when(simulacaoService.listarPorCliente(eq(1L), any(Pageable.class))).thenReturn(page);
 
-        ResponseEntity<Page<Simulacao>> response = simulacaoController.listarPorCliente(1L, 0, 10, "dataHora", "desc");
+        ResponseEntity<Page<SimulacaoResposta>> response = simulacaoController.listarPorCliente(1L, 0, 10, "dataHora", "desc");
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
         assertThat(response.getBody().getContent()).hasSize(2);
-        assertThat(response.getBody().getContent().get(0).getId()).isEqualTo(1L);
-        assertThat(response.getBody().getContent().get(1).getId()).isEqualTo(2L);
+        assertThat(response.getBody().getContent().get(0).id()).isEqualTo(1L);
+        assertThat(response.getBody().getContent().get(1).id()).isEqualTo(2L);
 
         verify(simulacaoService, times(1)).listarPorCliente(eq(1L), any(Pageable.class));
     }
@@ -99,7 +127,7 @@ class SimulacaoControllerTest {
 
         when(simulacaoService.listarPorCliente(eq(1L), any(Pageable.class))).thenReturn(page);
 
-        ResponseEntity<Page<Simulacao>> response = simulacaoController.listarPorCliente(1L, 1, 5, "valorSolicitado", "asc");
+        ResponseEntity<Page<SimulacaoResposta>> response = simulacaoController.listarPorCliente(1L, 1, 5, "valorSolicitado", "asc");
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
@@ -185,11 +213,11 @@ class SimulacaoControllerTest {
         List<Simulacao> simulacoes = Arrays.asList(simulacao1, simulacao2);
         when(simulacaoService.listarTodas()).thenReturn(simulacoes);
 
-        List<Simulacao> resultado = simulacaoController.listarTodas();
+        List<SimulacaoResposta> resultado = simulacaoController.listarTodas();
 
         assertThat(resultado).hasSize(2);
-        assertThat(resultado.get(0).getId()).isEqualTo(1L);
-        assertThat(resultado.get(1).getId()).isEqualTo(2L);
+        assertThat(resultado.get(0).id()).isEqualTo(1L);
+        assertThat(resultado.get(1).id()).isEqualTo(2L);
 
         verify(simulacaoService, times(1)).listarTodas();
     }
@@ -198,12 +226,12 @@ class SimulacaoControllerTest {
     void buscarPorId_ComIdExistente_DeveRetornarSimulacao() {
         when(simulacaoService.buscarPorId(1L)).thenReturn(simulacao1);
 
-        ResponseEntity<Simulacao> response = simulacaoController.buscarPorId(1L);
+        ResponseEntity<SimulacaoResposta> response = simulacaoController.buscarPorId(1L);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         assertThat(response.getBody()).isNotNull();
-        assertThat(response.getBody().getId()).isEqualTo(1L);
-        assertThat(response.getBody().getValorSolicitado()).isEqualByComparingTo("300000.00");
+        assertThat(response.getBody().id()).isEqualTo(1L);
+        assertThat(response.getBody().valorSolicitado()).isEqualTo(30_000_000L);
 
         verify(simulacaoService, times(1)).buscarPorId(1L);
     }
@@ -233,7 +261,7 @@ class SimulacaoControllerTest {
 
         when(simulacaoService.listarPorCliente(eq(1L), any(Pageable.class))).thenReturn(page);
 
-        ResponseEntity<Page<Simulacao>> response = simulacaoController.listarPorCliente(1L, 0, 10, "dataHora", "desc");
+        ResponseEntity<Page<SimulacaoResposta>> response = simulacaoController.listarPorCliente(1L, 0, 10, "dataHora", "desc");
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
 
@@ -269,4 +297,164 @@ class SimulacaoControllerTest {
         assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
                 .contains("filename=\"simulacoes_cliente_1.csv\"");
     }
-}
\ No newline at end of file
+
+    @Test
+    void exportarZip_DeveConfigurarHeadersEDelegarEscritaAoService() throws Exception {
+        List<Long> ids = List.of(1L, 2L);
+        when(simulacaoService.validarLoteExportacao(ids)).thenReturn(ids);
+
+        ResponseEntity<StreamingResponseBody> response = simulacaoController.exportarZip(ids, "TXT");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/zip"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .contains("filename=\"simulacoes_clientes.zip\"");
+        verify(simulacaoService, never()).exportarZip(anyList(), anyBoolean(), any());
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        response.getBody().writeTo(saida);
+
+        verify(simulacaoService, times(1)).exportarZip(ids, true, saida);
+    }
+
+    @Test
+    void criarSimulacao_ComMesmaIdempotencyKey_DeveCriarUmaUnicaVez() {
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(dataHora, new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+        when(simulacaoService.criarSimulacao(1L, requisicao)).thenReturn(simulacao1);
+
+        SimulacaoResposta primeira = simulacaoController.criarSimulacao(1L, "chave-1", requisicao);
+        SimulacaoResposta retentativa = simulacaoController.criarSimulacao(1L, "chave-1", requisicao);
+
+        assertThat(primeira.id()).isEqualTo(1L);
+        assertThat(retentativa).isEqualTo(primeira);
+        verify(simulacaoService, times(1)).criarSimulacao(1L, requisicao);
+    }
+
+    @Test
+    void criarSimulacao_RetentativaComOutraEscalaDosValores_DeveSerAMesmaRequisicao() {
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(null, new BigDecimal("1500.00"),
+                new BigDecimal("5000.00"), 150, new BigDecimal("2.00"));
+        SimulacaoRequisicao retentativa = new SimulacaoRequisicao(null, new BigDecimal("1500.0"),
+                new BigDecimal("5000"), 150, new BigDecimal("2"));
+        when(simulacaoService.criarSimulacao(1L, requisicao)).thenReturn(simulacao1);
+
+        SimulacaoResposta primeira = simulacaoController.criarSimulacao(1L, "chave-1", requisicao);
+
+        assertThat(simulacaoController.criarSimulacao(1L, "chave-1", retentativa)).isEqualTo(primeira);
+        verify(simulacaoService, never()).criarSimulacao(1L, retentativa);
+    }
+
+    @Test
+    void criarSimulacao_SemIdempotencyKey_DeveCriarACadaChamada() {
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(null, new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+        when(simulacaoService.criarSimulacao(1L, requisicao)).thenReturn(simulacao1, simulacao2);
+
+        simulacaoController.criarSimulacao(1L, null, requisicao);
+        SimulacaoResposta segunda = simulacaoController.criarSimulacao(1L, null, requisicao);
+
+        assertThat(segunda.id()).isEqualTo(2L);
+        verify(simulacaoService, times(2)).criarSimulacao(1L, requisicao);
+    }
+
+    @Test
+    void criarSimulacoesEmLote_DeveRetornarTodasAsSimulacoesCriadas() {
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(null, new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+        LoteSimulacoes lote = new LoteSimulacoes(List.of(requisicao, requisicao));
+        when(simulacaoService.criarSimulacoes(1L, lote.simulacoes())).thenReturn(List.of(simulacao1, simulacao2));
+
+        List<SimulacaoResposta> resultado = simulacaoController.criarSimulacoesEmLote(1L, "lote-1", lote);
+
+        assertThat(resultado).extracting(SimulacaoResposta::id).containsExactly(1L, 2L);
+        verify(simulacaoService, times(1)).criarSimulacoes(1L, lote.simulacoes());
+    }
+
+    @Test
+    void exportarCsvViaCopy_ComSimulacoes_DeveEscreverOCopyNaSaida() throws Exception {
+        when(simulacaoService.possuiSimulacoes(1L)).thenReturn(true);
+
+        ResponseEntity<StreamingResponseBody> response = simulacaoController.exportarCsvViaCopy(1L);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("text/csv"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION))
+                .contains("filename=\"simulacoes_cliente_1.csv\"");
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        response.getBody().writeTo(saida);
+
+        verify(exportacaoCsvCopy, times(1)).exportar(1L, saida);
+    }
+
+    @Test
+    void exportarCsvViaCopy_SemSimulacoes_DeveRetornarNoContent() throws Exception {
+        when(simulacaoService.possuiSimulacoes(1L)).thenReturn(false);
+
+        ResponseEntity<StreamingResponseBody> response = simulacaoController.exportarCsvViaCopy(1L);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        verify(exportacaoCsvCopy, never()).exportar(anyLong(), any());
+    }
+
+    @Test
+    void acompanhar_DeveEnviarAsPerdidasEDepoisAsNovasUmaVezCada() throws Exception {
+        when(simulacaoService.buscarNovasDoCliente(1L, 0L, EventosSimulacoes.MAXIMO_REENVIO))
+                .thenReturn(new EventosSimulacoes.Reenvio(0L, List.of(simulacao1)));
+
+        MvcResult resultado = mockMvc.perform(get("/api/simulacoes/cliente/1/eventos").header("Last-Event-ID", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        eventosSimulacoes.publicarAposCommit(1L, List.of(simulacao1, simulacao2));
+
+        String conteudo = aguardarConteudo(resultado, "id:2\n");
+        assertThat(resultado.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(conteudo).containsSubsequence(
+                "id:1\nevent:simulacao\ndata:{\"id\":1,", "id:2\nevent:simulacao\ndata:{\"id\":2,");
+        assertThat(conteudo.split("event:simulacao", -1)).hasSize(3);
+        assertThat(eventosSimulacoes.assinaturasAtivas()).isEqualTo(1);
+    }
+
+    @Test
+    void acompanhar_SimulacaoQueChegaAntesDeOutraDeOrdemMenor_NaoDeveAvancarOIdDoEvento() throws Exception {
+        simulacao1.setOrdemNoCliente(5L);
+        simulacao2.setOrdemNoCliente(4L);
+        when(simulacaoService.buscarNovasDoCliente(1L, null, EventosSimulacoes.MAXIMO_REENVIO))
+                .thenReturn(new EventosSimulacoes.Reenvio(3L, List.of()));
+
+        MvcResult resultado = mockMvc.perform(get("/api/simulacoes/cliente/1/eventos"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // A transação da simulação 2 confirmou antes, mas a publicação dela chegou depois.
+        eventosSimulacoes.publicarAposCommit(1L, List.of(simulacao1));
+        eventosSimulacoes.publicarAposCommit(1L, List.of(simulacao2));
+        eventosSimulacoes.publicarAposCommit(1L, List.of(simulacao1));
+
+        String conteudo = aguardarConteudo(resultado, "id:5\n");
+        assertThat(conteudo).containsSubsequence(
+                "id:3\nevent:simulacao\ndata:{\"id\":1,", "id:5\nevent:simulacao\ndata:{\"id\":2,");
+        assertThat(conteudo.split("event:simulacao", -1)).hasSize(3);
+    }
+
+    @Test
+    void acompanhar_ComClienteInexistente_DeveRetornarNotFoundSemManterAssinatura() throws Exception {
+        when(simulacaoService.buscarNovasDoCliente(99L, null, EventosSimulacoes.MAXIMO_REENVIO))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Cliente não encontrado com ID: 99"));
+
+        mockMvc.perform(get("/api/simulacoes/cliente/99/eventos"))
+                .andExpect(status().isNotFound());
+
+        assertThat(eventosSimulacoes.assinaturasAtivas()).isZero();
+    }
+
+    private static String aguardarConteudo(MvcResult resultado, String esperado) throws Exception {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String conteudo = resultado.getResponse().getContentAsString();
+        while (!conteudo.contains(esperado) && System.nanoTime() < limite) {
+            Thread.sleep(10);
+            conteudo = resultado.getResponse().getContentAsString();
+        }
+        return conteudo;
+    }
+}
@@ -0,0 +1,58 @@
+package com.cashme.interview.elegibilidade;
+
+import com.cashme.interview.bulkhead.Bulkhead;
+import com.cashme.interview.bulkhead.ClasseCarga;
+import com.cashme.interview.fragmentacao.Fragmentos;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AvaliacaoEmMassaTest {
+
+    private final RegrasElegibilidade regras = new RegrasElegibilidade(new BigDecimal("60.00"), 36, 240,
+            new BigDecimal("1.00"), new BigDecimal("2.50"));
+    private final Fragmentos fragmentos = mock(Fragmentos.class);
+    private final Bulkhead exportacao = new Bulkhead(ClasseCarga.EXPORTACAO, 4, 0, Duration.ZERO,
+            Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Test
+    void construtor_ParalelismoQueOcupaOPoolDeExportacao_DeveImpedirASubida() {
+        assertThatThrownBy(() -> new AvaliacaoEmMassa(fragmentos, regras, exportacao, 4, 100, 3))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bulkhead.exportacao.tamanho-pool (4)");
+    }
+
+    @Test
+    void executar_DeveReservarAsVagasDeExportacaoDuranteAExecucao() throws Exception {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        List<Boolean> entradasDuranteAExecucao = new ArrayList<>();
+        when(fragmentos.total()).thenReturn(1);
+        when(fragmentos.pool(0, ClasseCarga.EXPORTACAO)).thenReturn(pool);
+        when(pool.getConnection()).thenAnswer(invocacao -> {
+            entradasDuranteAExecucao.add(exportacao.entrar());
+            entradasDuranteAExecucao.add(exportacao.entrar());
+            exportacao.sair();
+            throw new SQLException("sem banco");
+        });
+        ExecucaoElegibilidade execucao = new ExecucaoElegibilidade();
+
+        new AvaliacaoEmMassa(fragmentos, regras, exportacao, 4, 100, 2).executar(execucao);
+
+        assertThat(entradasDuranteAExecucao).containsExactly(true, false);
+        assertThat(execucao.getSituacao()).isEqualTo(ExecucaoElegibilidade.Situacao.FALHOU);
+        for (int vaga = 0; vaga < 4; vaga++) {
+            assertThat(exportacao.entrar()).as("vaga %d liberada ao final", vaga).isTrue();
+        }
+    }
+}
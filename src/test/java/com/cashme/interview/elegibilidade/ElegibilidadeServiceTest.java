@@ -0,0 +1,148 @@
+package com.cashme.interview.elegibilidade;
+
+import com.cashme.interview.dto.ElegibilidadeResposta;
+import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.service.SimulacaoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ElegibilidadeServiceTest {
+
+    @Mock
+    private SimulacaoService simulacaoService;
+
+    @Mock
+    private AvaliacaoEmMassa avaliacaoEmMassa;
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection conexao;
+
+    @Mock
+    private PGConnection pg;
+
+    @Mock
+    private Array ids;
+
+    private ElegibilidadeService elegibilidadeService;
+
+    @BeforeEach
+    void setUp() {
+        RegrasElegibilidade regras = new RegrasElegibilidade(new BigDecimal("60.00"), 36, 240,
+                new BigDecimal("1.00"), new BigDecimal("2.50"));
+        elegibilidadeService = new ElegibilidadeService(simulacaoService, regras, avaliacaoEmMassa, dataSource);
+    }
+
+    @Test
+    void avaliar_SimulacaoDentroDasRegras_DeveGravarERetornarElegivel() throws Exception {
+        when(simulacaoService.buscarPorId(7L)).thenReturn(simulacao(7L, "1.50"));
+        PreparedStatement comando = conexaoDoGravador();
+
+        ElegibilidadeResposta resposta = elegibilidadeService.avaliar(7L);
+
+        assertThat(resposta).isEqualTo(new ElegibilidadeResposta(7L, true, 3_000, List.of()));
+        verify(comando).setArray(eq(2), argThat(array -> array == ids));
+        verify(comando).executeUpdate();
+        verify(pg).createArrayOf("int8", new long[]{7L});
+        verify(pg).createArrayOf("int4", new int[]{0});
+        verify(pg).createArrayOf("int8", new long[]{3_000L});
+    }
+
+    @Test
+    void avaliar_TaxaAcimaDaMaxima_DeveGravarOMotivo() throws Exception {
+        when(simulacaoService.buscarPorId(8L)).thenReturn(simulacao(8L, "3.00"));
+        conexaoDoGravador();
+
+        ElegibilidadeResposta resposta = elegibilidadeService.avaliar(8L);
+
+        assertThat(resposta.elegivel()).isFalse();
+        assertThat(resposta.motivos()).containsExactly(MotivoInelegibilidade.TAXA_ACIMA_DA_MAXIMA);
+        verify(pg).createArrayOf("int4", new int[]{MotivoInelegibilidade.TAXA_ACIMA_DA_MAXIMA.bit()});
+    }
+
+    @Test
+    void avaliar_SimulacaoInexistente_NaoDeveGravar() throws Exception {
+        when(simulacaoService.buscarPorId(9L))
+                .thenThrow(new ResponseStatusException(HttpStatus.NOT_FOUND, "Simulação não encontrada com ID: 9"));
+
+        assertThatThrownBy(() -> elegibilidadeService.avaliar(9L)).isInstanceOf(ResponseStatusException.class);
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    void iniciarAvaliacaoEmMassa_ComExecucaoEmAndamento_DeveRetornarConflito() {
+        ExecucaoElegibilidade primeira = elegibilidadeService.iniciarAvaliacaoEmMassa();
+
+        assertThatThrownBy(() -> elegibilidadeService.iniciarAvaliacaoEmMassa())
+                .isInstanceOf(ResponseStatusException.class)
+                .satisfies(e -> assertThat(((ResponseStatusException) e).getStatusCode())
+                        .isEqualTo(HttpStatus.CONFLICT));
+        verify(avaliacaoEmMassa, times(1)).executar(primeira);
+        assertThat(elegibilidadeService.buscarUltimaExecucao()).isSameAs(primeira);
+    }
+
+    @Test
+    void iniciarAvaliacaoEmMassa_AposConclusao_DevePermitirNovaExecucao() {
+        ExecucaoElegibilidade primeira = elegibilidadeService.iniciarAvaliacaoEmMassa();
+        primeira.concluir();
+
+        ExecucaoElegibilidade segunda = elegibilidadeService.iniciarAvaliacaoEmMassa();
+
+        assertThat(segunda).isNotSameAs(primeira);
+        verify(avaliacaoEmMassa, times(2)).executar(any());
+    }
+
+    @Test
+    void buscarUltimaExecucao_SemExecucao_DeveRetornarNotFound() {
+        assertThatThrownBy(() -> elegibilidadeService.buscarUltimaExecucao())
+                .isInstanceOf(ResponseStatusException.class)
+                .hasMessageContaining("Nenhuma avaliação");
+    }
+
+    /**
+     * Simulação de R$ 300.000,00 sobre garantia de R$ 1.000.000,00 (LTV 30%) em 120 meses.
+     */
+    private static Simulacao simulacao(Long id, String taxa) {
+        Simulacao simulacao = new Simulacao(null, LocalDateTime.of(2024, 1, 15, 10, 30), new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 120, new BigDecimal(taxa));
+        simulacao.setId(id);
+        return simulacao;
+    }
+
+    private PreparedStatement conexaoDoGravador() throws SQLException {
+        PreparedStatement comando = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(conexao);
+        when(conexao.unwrap(PGConnection.class)).thenReturn(pg);
+        when(pg.createArrayOf(eq("int8"), any())).thenReturn(ids, mock(Array.class));
+        when(pg.createArrayOf(eq("int4"), any())).thenReturn(mock(Array.class));
+        when(conexao.prepareStatement(anyString())).thenReturn(comando);
+        when(comando.executeUpdate()).thenReturn(1);
+        return comando;
+    }
+}
@@ -0,0 +1,48 @@
+package com.cashme.interview.elegibilidade;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegrasElegibilidadeTest {
+
+    private final RegrasElegibilidade regras = new RegrasElegibilidade(new BigDecimal("60.00"), 36, 240,
+            new BigDecimal("1.00"), new BigDecimal("2.50"));
+
+    @Test
+    void avaliar_NosLimites_DeveSerElegivel() {
+        long ltv = RegrasElegibilidade.ltv(30_000_000L, 50_000_000L);
+
+        assertThat(ltv).isEqualTo(6_000L);
+        assertThat(regras.avaliar(ltv, 36, 100)).isZero();
+        assertThat(regras.avaliar(ltv, 240, 250)).isZero();
+    }
+
+    @Test
+    void avaliar_ForaDosLimites_DeveApontarCadaMotivo() {
+        long ltv = RegrasElegibilidade.ltv(30_000_001L, 50_000_000L);
+
+        assertThat(MotivoInelegibilidade.de(regras.avaliar(ltv, 35, 99))).containsExactly(
+                MotivoInelegibilidade.LTV_ACIMA_DO_LIMITE,
+                MotivoInelegibilidade.PRAZO_ABAIXO_DO_MINIMO,
+                MotivoInelegibilidade.TAXA_ABAIXO_DA_MINIMA);
+        assertThat(MotivoInelegibilidade.de(regras.avaliar(0, 241, 251))).containsExactly(
+                MotivoInelegibilidade.PRAZO_ACIMA_DO_MAXIMO,
+                MotivoInelegibilidade.TAXA_ACIMA_DA_MAXIMA);
+    }
+
+    @Test
+    void ltv_ComValoresExtremos_NaoDeveEstourar() {
+        assertThat(RegrasElegibilidade.ltv(999_999_999_999_999L, 1L)).isPositive();
+        assertThat(RegrasElegibilidade.ltv(1L, 0L)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void construtor_ComLimitesInvertidos_DeveFalhar() {
+        assertThatThrownBy(() -> new RegrasElegibilidade(new BigDecimal("60"), 240, 36, BigDecimal.ONE,
+                BigDecimal.TEN)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package com.cashme.interview.fragmentacao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FragmentacaoTest {
+
+    private final Fragmentacao fragmentacao =
+            new Fragmentacao(3, mock(PlatformTransactionManager.class), tarefa -> tarefa);
+
+    @Test
+    void localizacao_DeveUsarRestoDoClienteEBitsAltosDaSimulacao() {
+        assertThat(fragmentacao.doCliente(7)).isEqualTo(1);
+        assertThat(fragmentacao.doCliente(9)).isZero();
+        assertThat(fragmentacao.daSimulacao(42)).isZero();
+        assertThat(fragmentacao.daSimulacao((2L << Fragmentacao.BITS_SEQUENCIA_SIMULACOES) + 42)).isEqualTo(2);
+        assertThat(fragmentacao.daSimulacao(5L << Fragmentacao.BITS_SEQUENCIA_SIMULACOES)).isZero();
+        assertThat(fragmentacao.doCpf("12345678901")).isBetween(0, 2)
+                .isEqualTo(fragmentacao.doCpf("12345678901"));
+    }
+
+    @Test
+    void agruparClientes_DeveSepararPorFragmentoMantendoAOrdem() {
+        Map<Integer, List<Long>> grupos = fragmentacao.agruparClientes(List.of(5L, 3L, 4L, 2L, 6L));
+
+        assertThat(grupos).containsExactly(
+                Map.entry(0, List.of(3L, 6L)),
+                Map.entry(1, List.of(4L)),
+                Map.entry(2, List.of(5L, 2L)));
+    }
+
+    @Test
+    void reunir_DeveConsultarCadaFragmentoEIntercalarNaOrdem() {
+        List<Long> ids = fragmentacao.reunir(() -> idsDoFragmento(Fragmento.atual(), 10), Comparator.naturalOrder());
+
+        assertThat(ids).containsExactlyElementsOf(LongStream.range(0, 30).boxed().toList());
+    }
+
+    @Test
+    void reunirPagina_DeveBuscarDeslocamentoMaisLimiteEmCadaFragmento() {
+        List<Long> pagina = fragmentacao.reunirPagina(4, 5, (limite, deslocamento) -> {
+            assertThat(deslocamento).isZero();
+            return idsDoFragmento(Fragmento.atual(), limite);
+        }, Comparator.naturalOrder());
+
+        assertThat(pagina).containsExactly(5L, 6L, 7L, 8L);
+    }
+
+    private static List<Long> idsDoFragmento(int fragmento, int quantidade) {
+        return LongStream.range(0, quantidade).map(i -> i * 3 + fragmento).boxed().toList();
+    }
+}
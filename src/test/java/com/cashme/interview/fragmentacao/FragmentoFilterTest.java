@@ -0,0 +1,37 @@
+package com.cashme.interview.fragmentacao;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FragmentoFilterTest {
+
+    private final FragmentoFilter filter =
+            new FragmentoFilter(new Fragmentacao(3, mock(PlatformTransactionManager.class), tarefa -> tarefa));
+
+    @Test
+    void classificar_DeveUsarClienteOuSimulacaoDaUrl() {
+        assertThat(filter.classificar("/api/clientes/7")).isEqualTo(1);
+        assertThat(filter.classificar("/api/simulacoes/cliente/8/export/csv")).isEqualTo(2);
+        assertThat(filter.classificar("/api/simulacoes/" + ((2L << 48) + 1))).isEqualTo(2);
+        assertThat(filter.classificar("/api/simulacoes/1/elegibilidade")).isZero();
+        assertThat(filter.classificar("/api/clientes/busca")).isZero();
+    }
+
+    @Test
+    void doFilter_DeveDefinirOFragmentoDuranteACadeiaELimparDepois() throws Exception {
+        AtomicInteger fragmentoNaCadeia = new AtomicInteger(-1);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/clientes/5"), new MockHttpServletResponse(),
+                (request, response) -> fragmentoNaCadeia.set(Fragmento.atual()));
+
+        assertThat(fragmentoNaCadeia).hasValue(2);
+        assertThat(Fragmento.atual()).isZero();
+    }
+}
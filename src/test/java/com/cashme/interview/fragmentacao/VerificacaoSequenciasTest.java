@@ -0,0 +1,40 @@
+package com.cashme.interview.fragmentacao;
+
+import com.cashme.interview.fragmentacao.VerificacaoSequencias.Sequencia;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerificacaoSequenciasTest {
+
+    private static final long INICIO_FRAGMENTO_1 = 1L << Fragmentacao.BITS_SEQUENCIA_SIMULACOES;
+
+    @Test
+    void problemas_SequenciasAjustadasPelaV7_NaoDeveApontarNenhum() {
+        assertThat(VerificacaoSequencias.problemas(1, 3, new Sequencia(3, 7),
+                new Sequencia(50, INICIO_FRAGMENTO_1 + 50))).isEmpty();
+        assertThat(VerificacaoSequencias.problemas(0, 1, new Sequencia(1, 11),
+                new Sequencia(50, 500))).isEmpty();
+    }
+
+    @Test
+    void problemas_BancoMigradoComUmFragmentoSo_DeveApontarClientesESimulacoes() {
+        assertThat(VerificacaoSequencias.problemas(1, 3, new Sequencia(1, 11), new Sequencia(50, 500)))
+                .hasSize(3)
+                .anySatisfy(problema -> assertThat(problema).contains("incrementa de 1 em 1"))
+                .anySatisfy(problema -> assertThat(problema).contains("11"))
+                .anySatisfy(problema -> assertThat(problema).contains("fora da faixa"));
+    }
+
+    @Test
+    void problemas_FragmentoZeroComIncrementoAntigo_DeveApontarAIdentity() {
+        assertThat(VerificacaoSequencias.problemas(0, 3, new Sequencia(1, 12), new Sequencia(50, 500)))
+                .containsExactly("a identity de clientes incrementa de 1 em 1");
+    }
+
+    @Test
+    void problemas_BlocoQueAtravessaOFimDaFaixa_DeveSerApontado() {
+        assertThat(VerificacaoSequencias.problemas(0, 2, new Sequencia(2, 4),
+                new Sequencia(50, INICIO_FRAGMENTO_1 + 10))).hasSize(1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cashme.interview.gerador;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DistribuicaoZipfTest {
+
+    @Test
+    void repartir_DeveSomarExatamenteOTotalSemCrescer() {
+        long[] cotas = new DistribuicaoZipf(1000, 1.1).repartir(1_000_000);
+
+        assertThat(Arrays.stream(cotas).sum()).isEqualTo(1_000_000);
+        for (int i = 1; i < cotas.length; i++) {
+            // o arredondamento sobre a acumulada pode deslocar uma unidade entre posições vizinhas
+            assertThat(cotas[i]).isLessThanOrEqualTo(cotas[i - 1] + 1);
+        }
+        assertThat(cotas[0]).isGreaterThan(100 * cotas[cotas.length - 1]);
+    }
+
+    @Test
+    void probabilidade_ComExpoenteZero_DeveSerUniforme() {
+        DistribuicaoZipf distribuicao = new DistribuicaoZipf(4, 0);
+
+        assertThat(distribuicao.probabilidade(1)).isCloseTo(0.25, within(1e-12));
+        assertThat(distribuicao.probabilidade(4)).isCloseTo(0.25, within(1e-12));
+        assertThat(distribuicao.repartir(10)).containsExactly(3, 2, 3, 2);
+    }
+
+    @Test
+    void construtor_SemPosicoes_DeveLancarExcecao() {
+        assertThatThrownBy(() -> new DistribuicaoZipf(0, 1.0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.cashme.interview.medicao;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JdbcMedidoTest {
+
+    private final DataSource driver = mock(DataSource.class);
+    private final Connection conexao = mock(Connection.class);
+    private final PreparedStatement comando = mock(PreparedStatement.class);
+    private final ResultSet resultado = mock(ResultSet.class);
+
+    private final DataSource dataSource = JdbcMedido.envolver(driver);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(driver.getConnection()).thenReturn(conexao);
+        when(conexao.prepareStatement("select 1")).thenReturn(comando);
+        when(comando.executeQuery()).thenReturn(resultado);
+        when(resultado.next()).thenReturn(true, true, false);
+        when(resultado.getStatement()).thenReturn(comando);
+    }
+
+    @Test
+    void executeQuery_ComMedicao_DeveContarComandoELinhasLidas() {
+        MedicaoSql medicao = MedicaoSql.medir(() -> consultar(2));
+
+        assertThat(medicao.comandos()).isEqualTo(1);
+        assertThat(medicao.linhas()).isEqualTo(2);
+        assertThat(medicao.nanos()).isPositive();
+    }
+
+    @Test
+    void executeQuery_SemMedicao_DeveApenasRepassar() {
+        MedicaoSql medicao = MedicaoSql.medir(() -> MedicaoSql.em(null, () -> consultar(2)));
+
+        assertThat(medicao.comandos()).isZero();
+        assertThat(medicao.linhas()).isZero();
+    }
+
+    @Test
+    void getStatement_DeveDevolverOProxyQueCriouOResultado() throws Exception {
+        PreparedStatement preparado = dataSource.getConnection().prepareStatement("select 1");
+
+        assertThat(preparado.executeQuery().getStatement()).isSameAs(preparado);
+    }
+
+    private void consultar(int linhasEsperadas) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select 1");
+             ResultSet rs = ps.executeQuery()) {
+            int linhas = 0;
+            while (rs.next()) {
+                linhas++;
+            }
+            assertThat(linhas).isEqualTo(linhasEsperadas);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
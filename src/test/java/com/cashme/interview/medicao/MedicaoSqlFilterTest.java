@@ -0,0 +1,48 @@
+package com.cashme.interview.medicao;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MedicaoSqlFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MedicaoSqlFilter filter = new MedicaoSqlFilter(true, registry);
+
+    @Test
+    void doFilter_DevePublicarAMedicaoNosCabecalhosENasMetricas() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/clientes/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/clientes/{id}");
+            MedicaoSql medicao = MedicaoSql.atual();
+            medicao.registrarComando(1_000_000);
+            medicao.registrarLeitura(true, 500_000);
+            medicao.registrarComando(1_000_000);
+            res.getWriter().write("{}");
+        });
+
+        assertThat(response.getHeader(MedicaoSqlFilter.COMANDOS)).isEqualTo("2");
+        assertThat(response.getHeader(MedicaoSqlFilter.LINHAS)).isEqualTo("1");
+        assertThat(response.getHeader(MedicaoSqlFilter.TEMPO)).isEqualTo("2.500");
+        assertThat(registry.get("sql.requisicao.comandos").tag("uri", "/api/clientes/{id}").summary().totalAmount())
+                .isEqualTo(2);
+        assertThat(MedicaoSql.atual()).isNull();
+    }
+
+    @Test
+    void doFilter_ForaDaApi_NaoDeveMedir() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), response,
+                (req, res) -> assertThat(MedicaoSql.atual()).isNull());
+
+        assertThat(response.getHeader(MedicaoSqlFilter.COMANDOS)).isNull();
+        assertThat(registry.find("sql.requisicao.comandos").summary()).isNull();
+    }
+}
@@ -0,0 +1,37 @@
+package com.cashme.interview.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DinheiroTest {
+
+    @Test
+    void formatar_DeveCoincidirComOBigDecimalDeEscalaDois() {
+        for (String valor : new String[]{"0.00", "0.05", "0.50", "1.85", "300000.00", "9999999999999.99", "-12.07"}) {
+            assertThat(Dinheiro.formatar(Dinheiro.centesimos(new BigDecimal(valor))))
+                    .isEqualTo(new BigDecimal(valor).toPlainString());
+        }
+    }
+
+    @Test
+    void converters_DevemIrEVoltarSemPerda() {
+        CentavosConverter centavos = new CentavosConverter();
+        PontosBaseConverter pontosBase = new PontosBaseConverter();
+
+        assertThat(centavos.convertToEntityAttribute(new BigDecimal("300000.5"))).isEqualTo(30_000_050L);
+        assertThat(centavos.convertToDatabaseColumn(30_000_050L)).isEqualTo(new BigDecimal("300000.50"));
+        assertThat(pontosBase.convertToEntityAttribute(new BigDecimal("1.85"))).isEqualTo(185);
+        assertThat(pontosBase.convertToDatabaseColumn(185)).isEqualTo(new BigDecimal("1.85"));
+        assertThat(centavos.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void centesimos_ComMaisDeDuasCasas_DeveFalharEmVezDeArredondar() {
+        assertThatThrownBy(() -> Dinheiro.centesimos(new BigDecimal("10.005")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cashme.interview.reativo;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsultasReativasTest {
+
+    private final List<Long> paginasPedidas = new ArrayList<>();
+
+    @Test
+    void paginar_DevePercorrerAsPaginasAteUmaIncompleta() {
+        List<Long> ids = ConsultasReativas.paginar(this::pagina, Long::longValue, 3).collectList().block();
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+        assertThat(paginasPedidas).containsExactly(0L, 3L, 6L);
+    }
+
+    @Test
+    void paginar_NaoDeveBuscarAProximaPaginaEnquantoAAtualAtendeADemanda() {
+        List<Long> ids = ConsultasReativas.paginar(this::pagina, Long::longValue, 3).take(2).collectList().block();
+
+        assertThat(ids).containsExactly(1L, 2L);
+        assertThat(paginasPedidas).containsExactly(0L);
+    }
+
+    /** Oito IDs no total, a partir de 1. */
+    private Mono<List<Long>> pagina(long depois) {
+        return Mono.fromSupplier(() -> {
+            paginasPedidas.add(depois);
+            return LongStream.rangeClosed(depois + 1, Math.min(depois + 3, 8)).boxed().toList();
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.cashme.interview.reativo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LeituraReativaConfigTest {
+
+    @Test
+    void configuracaoConexao_ComParametrosSuportados_DeveRepassarAoR2dbc() {
+        String configuracao = LeituraReativaConfig.configuracaoConexao(
+                        "jdbc:postgresql://banco:5433/mydb?currentSchema=leitura&connectTimeout=3&sslmode=disable")
+                .username("myuser")
+                .build()
+                .toString();
+
+        assertThat(configuracao)
+                .contains("host='banco', port=5433")
+                .contains("database='mydb'")
+                .contains("search_path=leitura")
+                .contains("connectTimeout=PT3S")
+                .contains("applicationName='leitura-reativa'");
+    }
+
+    @Test
+    void configuracaoConexao_SemPortaNemParametros_DeveUsarOsPadroes() {
+        String configuracao = LeituraReativaConfig.configuracaoConexao("jdbc:postgresql://localhost/mydb")
+                .username("myuser")
+                .build()
+                .toString();
+
+        assertThat(configuracao).contains("host='localhost', port=5432").contains("database='mydb'");
+    }
+
+    @Test
+    void configuracaoConexao_ComParametroNaoSuportado_DeveFalhar() {
+        assertThatThrownBy(() -> LeituraReativaConfig.configuracaoConexao(
+                "jdbc:postgresql://localhost:5432/mydb?reWriteBatchedInserts=true&prepareThreshold=0"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[prepareThreshold, reWriteBatchedInserts]");
+    }
+
+    @Test
+    void configuracaoConexao_ComMaisDeUmHost_DeveFalhar() {
+        assertThatThrownBy(() -> LeituraReativaConfig.configuracaoConexao(
+                "jdbc:postgresql://primario:5432,replica:5432/mydb"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("mais de um host");
+    }
+}
@@ -0,0 +1,95 @@
+package com.cashme.interview.reativo;
+
+import com.cashme.interview.dto.SimulacaoResposta;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LeituraReativaHandlerTest {
+
+    @Mock
+    private ConsultasReativas consultas;
+
+    private WebTestClient client;
+    private SimulacaoResposta simulacao1;
+    private SimulacaoResposta simulacao2;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        client = WebTestClient.bindToRouterFunction(
+                LeituraReativaConfig.rotas(new LeituraReativaHandler(consultas, objectMapper))).build();
+
+        LocalDateTime dataHora = LocalDateTime.of(2024, 1, 15, 10, 30);
+        simulacao1 = new SimulacaoResposta(1L, dataHora, 10_000_000L, 20_000_000L, 60, 150);
+        simulacao2 = new SimulacaoResposta(2L, dataHora, 5_000_000L, 10_000_000L, 36, 120);
+    }
+
+    @Test
+    void listarSimulacoesDoCliente_DeveRetornarUmaSimulacaoPorLinha() {
+        when(consultas.clienteExportado(1L))
+                .thenReturn(Mono.just(new ConsultasReativas.ClienteExportado(1L, "João Silva", "12345678901", true)));
+        when(consultas.simulacoesDoCliente(1L)).thenReturn(Flux.just(simulacao1, simulacao2));
+
+        String corpo = client.get().uri("/api/simulacoes/cliente/1").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(corpo.split("\n")).hasSize(2);
+        assertThat(corpo).startsWith("{\"id\":1,").contains("\"valorSolicitado\":100000.00").endsWith("}\n");
+    }
+
+    @Test
+    void exportarCsv_DeveRetornarCabecalhoELinhasDoCliente() {
+        when(consultas.clienteExportado(1L))
+                .thenReturn(Mono.just(new ConsultasReativas.ClienteExportado(1L, "João Silva", "12345678901", true)));
+        when(consultas.simulacoesDoCliente(1L)).thenReturn(Flux.just(simulacao1, simulacao2));
+
+        String corpo = client.get().uri("/api/simulacoes/cliente/1/export/csv").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectHeader().valueMatches("Content-Disposition", ".*simulacoes_cliente_1\\.csv.*")
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        assertThat(corpo.split("\n")).hasSize(3);
+        assertThat(corpo).contains("1,15/01/2024,10:30:00,100000.00,200000.00,60,1.50,1,\"João Silva\",12345678901");
+    }
+
+    @Test
+    void exportarCsv_DeveRetornarNoContentQuandoClienteNaoTemSimulacoes() {
+        when(consultas.clienteExportado(1L))
+                .thenReturn(Mono.just(new ConsultasReativas.ClienteExportado(1L, "João Silva", "12345678901", false)));
+
+        client.get().uri("/api/simulacoes/cliente/1/export/csv").exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void exportarCsv_DeveRetornarNotFoundQuandoClienteNaoExiste() {
+        when(consultas.clienteExportado(99L)).thenReturn(Mono.empty());
+
+        client.get().uri("/api/simulacoes/cliente/99/export/csv").exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void listarSimulacoesDoCliente_DeveRetornarBadRequestParaIdInvalido() {
+        client.get().uri("/api/simulacoes/cliente/abc").exchange()
+                .expectStatus().isBadRequest();
+    }
+}
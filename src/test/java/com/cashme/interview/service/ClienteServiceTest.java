@@ -2,16 +2,47 @@ package com.cashme.interview.service;
 
 import com.cashme.interview.model.Cliente;
 import com.cashme.interview.model.Endereco;
+import com.cashme.interview.cache.CacheRespostas;
+import com.cashme.interview.dto.ClienteBusca;
+import com.cashme.interview.repository.ClienteEncontrado;
 import com.cashme.interview.repository.ClienteRepository;
+import com.cashme.interview.repository.EnderecoRepository;
+import com.cashme.interview.repository.SimulacaoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.cashme.interview.fragmentacao.Fragmentacao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Java6Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ClienteServiceTest {
@@ -19,9 +50,31 @@ class ClienteServiceTest {
     @Mock
     private ClienteRepository clienteRepository;
 
+    @Mock
+    private SimulacaoRepository simulacaoRepository;
+
+    @Mock
+    private EnderecoRepository enderecoRepository;
+
+    @Mock
+    private CacheRespostas cacheRespostas;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final PlatformTransactionManager transacoes = mock(PlatformTransactionManager.class);
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(transacoes);
+
+    @Spy
+    private Fragmentacao fragmentacao = new Fragmentacao(1, mock(PlatformTransactionManager.class), tarefa -> tarefa);
+
     @InjectMocks
     private ClienteService service;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @Test
     void filtrarClientes(){
         Endereco endereco1 = new Endereco();
@@ -47,4 +100,286 @@ class ClienteServiceTest {
         assertThat(resultado).hasSize(1).containsExactly("Joao");
     }
 
+    @Test
+    void calculaNomesClientesParaCidadeEstado_ClienteForaDaSessao_DeveUsarOEnderecoCarregado() {
+        Endereco proxy = mock(Endereco.class, withSettings().extraInterfaces(HibernateProxy.class));
+        LazyInitializer inicializador = mock(LazyInitializer.class);
+        when(((HibernateProxy) proxy).asHibernateProxy()).thenReturn((HibernateProxy) proxy);
+        when(((HibernateProxy) proxy).getHibernateLazyInitializer()).thenReturn(inicializador);
+        when(inicializador.isUninitialized()).thenReturn(true);
+
+        Cliente destacado = new Cliente();
+        destacado.setId(1L);
+        destacado.setNome("Joao");
+        destacado.setEndereco(proxy);
+
+        Endereco endereco = new Endereco();
+        endereco.setCidade("Curitiba");
+        endereco.setEstado("PR");
+        Cliente carregado = new Cliente();
+        carregado.setId(1L);
+        carregado.setEndereco(endereco);
+        when(clienteRepository.findByIdIn(List.of(1L))).thenReturn(List.of(carregado));
+
+        List<String> resultado = service.calculaNomesClientesParaCidadeEstado(List.of(destacado), "Curitiba", "PR");
+
+        assertThat(resultado).containsExactly("Joao");
+        verify(proxy, never()).getCidade();
+    }
+
+    @Test
+    void deletarCliente_DeveUsarExclusoesEmMassa() {
+        Endereco endereco = new Endereco();
+        endereco.setId(7L);
+
+        Cliente cliente = new Cliente();
+        cliente.setId(1L);
+        cliente.setNome("Joao");
+        cliente.setEndereco(endereco);
+
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(simulacaoRepository.deleteByClienteIdEmMassa(1L)).thenReturn(50_000);
+
+        service.deletarCliente(1L);
+
+        verify(simulacaoRepository).deleteByClienteIdEmMassa(1L);
+        verify(clienteRepository).deleteByIdEmMassa(1L);
+        verify(enderecoRepository).deleteByIdEmMassa(7L);
+        verify(clienteRepository, never()).delete(any());
+        verify(cacheRespostas).invalidarTudoAposCommit();
+    }
+
+    @Test
+    void deletarClienteEmLotes_LoteMenorQueOTamanho_DeveParar() {
+        ReflectionTestUtils.setField(service, "tamanhoLoteExclusao", 2);
+        when(simulacaoRepository.deleteLoteByClienteId(1L, 2)).thenReturn(1);
+
+        service.deletarClienteEmLotes(1L);
+
+        verify(simulacaoRepository, times(1)).deleteLoteByClienteId(1L, 2);
+    }
+
+    @Test
+    void deletarClienteEmLotes_LoteDoTamanhoExato_DeveContinuar() {
+        ReflectionTestUtils.setField(service, "tamanhoLoteExclusao", 2);
+        when(simulacaoRepository.deleteLoteByClienteId(1L, 2)).thenReturn(2, 2, 0);
+
+        service.deletarClienteEmLotes(1L);
+
+        verify(simulacaoRepository, times(3)).deleteLoteByClienteId(1L, 2);
+    }
+
+    @Test
+    void deletarClienteEmLotes_DeveRemoverClienteEEnderecoNaUltimaTransacao() {
+        ReflectionTestUtils.setField(service, "tamanhoLoteExclusao", 2);
+        when(simulacaoRepository.deleteLoteByClienteId(1L, 2)).thenReturn(2, 1);
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(clienteComEndereco()));
+
+        service.deletarClienteEmLotes(1L);
+
+        InOrder ordem = inOrder(transacoes, simulacaoRepository, clienteRepository, enderecoRepository);
+        for (int lote = 0; lote < 2; lote++) {
+            ordem.verify(transacoes).getTransaction(any());
+            ordem.verify(simulacaoRepository).deleteLoteByClienteId(1L, 2);
+            ordem.verify(transacoes).commit(any());
+        }
+        ordem.verify(transacoes).getTransaction(any());
+        ordem.verify(simulacaoRepository).deleteByClienteIdEmMassa(1L);
+        ordem.verify(clienteRepository).deleteByIdEmMassa(1L);
+        ordem.verify(enderecoRepository).deleteByIdEmMassa(7L);
+        ordem.verify(transacoes).commit(any());
+        ordem.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void deletarClienteEmLotes_DeveInvalidarOCacheNaUltimaTransacao() {
+        ReflectionTestUtils.setField(service, "tamanhoLoteExclusao", 2);
+        when(simulacaoRepository.deleteLoteByClienteId(1L, 2)).thenReturn(0);
+
+        service.deletarClienteEmLotes(1L);
+
+        InOrder ordem = inOrder(transacoes, cacheRespostas);
+        ordem.verify(transacoes).commit(any());
+        ordem.verify(transacoes).getTransaction(any());
+        ordem.verify(cacheRespostas).invalidarTudoAposCommit();
+        ordem.verify(transacoes).commit(any());
+        verify(cacheRespostas, times(1)).invalidarTudoAposCommit();
+    }
+
+    @Test
+    void atualizarParcialmente_ComCpfInalterado_NaoDeveConsultarCpfNemTocarEndereco() throws Exception {
+        Cliente cliente = clienteComEndereco();
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.saveAndFlush(cliente)).thenReturn(cliente);
+
+        Cliente resultado = service.atualizarParcialmente(1L,
+                objectMapper.readTree("{\"cpf\":\"12345678900\",\"nome\":\"Joao Novo\"}"), null);
+
+        assertThat(resultado.getNome()).isEqualTo("Joao Novo");
+        assertThat(resultado.getEndereco().getCidade()).isEqualTo("Curitiba");
+        verify(clienteRepository, never()).existsByCpf(any());
+        verify(entityManager, never()).lock(any(), any());
+    }
+
+    @Test
+    void atualizarParcialmente_ComCpfJaCadastradoEmOutroFragmento_DeveLancarConflict() throws Exception {
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(clienteComEndereco()));
+        doReturn(1).when(fragmentacao).doCpf("98765432100");
+        doReturn(true).when(fragmentacao).lerIsolado(eq(1), any());
+
+        assertThatThrownBy(() -> service.atualizarParcialmente(1L,
+                objectMapper.readTree("{\"cpf\":\"98765432100\"}"), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        verify(clienteRepository).existsByCpf("98765432100");
+        verify(clienteRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void atualizarCliente_ComCpfJaCadastradoEmOutroFragmento_DeveLancarConflict() {
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(clienteComEndereco()));
+        doReturn(1).when(fragmentacao).doCpf("98765432100");
+        doReturn(true).when(fragmentacao).lerIsolado(eq(1), any());
+
+        assertThatThrownBy(() -> service.atualizarCliente(1L, new Cliente("98765432100", "Joao", null)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        verify(clienteRepository, never()).save(any());
+    }
+
+    @Test
+    void atualizarParcialmente_ComCpfLivreEmOutroFragmento_DeveGravar() throws Exception {
+        Cliente cliente = clienteComEndereco();
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.saveAndFlush(cliente)).thenReturn(cliente);
+        doReturn(1).when(fragmentacao).doCpf("98765432100");
+        doReturn(false).when(fragmentacao).lerIsolado(eq(1), any());
+
+        service.atualizarParcialmente(1L, objectMapper.readTree("{\"cpf\":\"98765432100\"}"), null);
+
+        assertThat(cliente.getCpf()).isEqualTo("98765432100");
+    }
+
+    @Test
+    void atualizarParcialmente_ComCampoDoEndereco_DeveMesclarEIncrementarVersaoDoCliente() throws Exception {
+        Cliente cliente = clienteComEndereco();
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.saveAndFlush(cliente)).thenReturn(cliente);
+
+        service.atualizarParcialmente(1L, objectMapper.readTree("{\"endereco\":{\"numero\":\"456\"}}"), 2L);
+
+        assertThat(cliente.getEndereco().getNumero()).isEqualTo("456");
+        assertThat(cliente.getEndereco().getRua()).isEqualTo("Rua A");
+        assertThat(cliente.getNome()).isEqualTo("Joao");
+        verify(entityManager).lock(cliente, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+    }
+
+    @Test
+    void atualizarParcialmente_ComVersaoDivergente_DeveLancarPreconditionFailed() throws Exception {
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(clienteComEndereco()));
+
+        assertThatThrownBy(() -> service.atualizarParcialmente(1L, objectMapper.readTree("{\"nome\":\"X\"}"), 1L))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        verify(clienteRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void atualizarParcialmente_ComNomeNulo_DeveLancarBadRequest() throws Exception {
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(clienteComEndereco()));
+
+        assertThatThrownBy(() -> service.atualizarParcialmente(1L, objectMapper.readTree("{\"nome\":null}"), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void buscarClientes_ComCpfPontuado_DeveBuscarPorPrefixoEIndicarProximaPagina() {
+        when(clienteRepository.buscarPorPrefixoCpf("123456%", 3, 0))
+                .thenReturn(List.of(encontrado(1L), encontrado(2L), encontrado(3L)));
+
+        Slice<ClienteBusca> resultado = service.buscarClientes(" 123.456 ", PageRequest.of(0, 2));
+
+        assertThat(resultado.getContent()).extracting(ClienteBusca::id).containsExactly(1L, 2L);
+        assertThat(resultado.hasNext()).isTrue();
+        verify(clienteRepository, never()).buscarPorNome(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void buscarClientes_ComNome_DeveNormalizarEspacosEPaginarPorDeslocamento() {
+        when(clienteRepository.buscarPorNome("Ana Silva", 11, 10)).thenReturn(List.of(encontrado(5L)));
+
+        Slice<ClienteBusca> resultado = service.buscarClientes("  Ana   Silva ", PageRequest.of(1, 10));
+
+        assertThat(resultado.getContent()).hasSize(1);
+        assertThat(resultado.hasNext()).isFalse();
+        verify(clienteRepository, never()).buscarPorPrefixoCpf(any(), anyInt(), anyLong());
+    }
+
+    @Test
+    void buscarClientes_ComTermoCurto_DeveLancarBadRequest() {
+        assertThatThrownBy(() -> service.buscarClientes("jo", PageRequest.of(0, 10)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(clienteRepository);
+    }
+
+    @Test
+    void buscarClientes_ComPaginaAlemDoDeslocamentoMaximo_DeveLancarBadRequest() {
+        assertThatThrownBy(() -> service.buscarClientes("Ana Silva", PageRequest.of(Integer.MAX_VALUE, 50)))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(clienteRepository);
+    }
+
+    private static ClienteEncontrado encontrado(Long id) {
+        return new ClienteEncontrado() {
+            public Long getId() { return id; }
+            public String getNome() { return "Cliente " + id; }
+            public String getCpf() { return String.format("%011d", id); }
+            public Double getRelevancia() { return 1.0; }
+        };
+    }
+
+    @Test
+    void atualizarParcialmente_ComViolacaoDoCpfUnico_DeveLancarConflict() throws Exception {
+        Cliente cliente = clienteComEndereco();
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.saveAndFlush(cliente)).thenThrow(violacao("clientes_cpf_key"));
+
+        assertThatThrownBy(() -> service.atualizarParcialmente(1L, objectMapper.readTree("{\"nome\":\"X\"}"), null))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void atualizarParcialmente_ComOutraViolacao_NaoDeveResponderCpfJaCadastrado() throws Exception {
+        Cliente cliente = clienteComEndereco();
+        when(clienteRepository.findById(1L)).thenReturn(Optional.of(cliente));
+        when(clienteRepository.saveAndFlush(cliente)).thenThrow(violacao("fk_clientes_endereco"));
+
+        assertThatThrownBy(() -> service.atualizarParcialmente(1L, objectMapper.readTree("{\"nome\":\"X\"}"), null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static DataIntegrityViolationException violacao(String restricao) {
+        return new DataIntegrityViolationException(restricao,
+                new ConstraintViolationException(restricao, new SQLException(restricao, "23505"), restricao));
+    }
+
+    private static Cliente clienteComEndereco() {
+        Endereco endereco = new Endereco(7L, "Rua A", "123", "Centro", "80000-000", "Curitiba", "PR", null);
+        Cliente cliente = new Cliente("12345678900", "Joao", endereco);
+        cliente.setId(1L);
+        cliente.setVersao(2L);
+        return cliente;
+    }
+
 }
\ No newline at end of file
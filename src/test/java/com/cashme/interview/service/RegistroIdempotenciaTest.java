@@ -0,0 +1,59 @@
+package com.cashme.interview.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RegistroIdempotenciaTest {
+
+    private final RegistroIdempotencia registro = new RegistroIdempotencia(2, Duration.ofMinutes(1));
+
+    @Test
+    void mesmaChave_DeveExecutarUmaUnicaVez() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        Integer primeira = registro.executar("a", "req", execucoes::incrementAndGet);
+        Integer segunda = registro.executar("a", "req", execucoes::incrementAndGet);
+
+        assertThat(primeira).isEqualTo(1);
+        assertThat(segunda).isEqualTo(1);
+        assertThat(execucoes).hasValue(1);
+    }
+
+    @Test
+    void mesmaChaveComOutraRequisicao_DeveRetornarUnprocessableEntity() {
+        registro.executar("a", "req", () -> 1);
+
+        assertThatThrownBy(() -> registro.executar("a", "outra", () -> 2))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void falha_DeveLiberarAChaveParaNovaTentativa() {
+        assertThatThrownBy(() -> registro.executar("a", "req", () -> {
+            throw new IllegalStateException("falhou");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(registro.executar("a", "req", () -> 2)).isEqualTo(2);
+    }
+
+    @Test
+    void limiteDeChaves_DeveDescartarAMenosUsada() {
+        AtomicInteger execucoes = new AtomicInteger();
+        registro.executar("a", "req", execucoes::incrementAndGet);
+        registro.executar("b", "req", execucoes::incrementAndGet);
+        registro.executar("c", "req", execucoes::incrementAndGet);
+
+        registro.executar("a", "req", execucoes::incrementAndGet);
+
+        assertThat(execucoes).hasValue(4);
+    }
+}
@@ -0,0 +1,218 @@
+package com.cashme.interview.service;
+
+import com.cashme.interview.cache.CacheRespostas;
+import com.cashme.interview.dto.SimulacaoRequisicao;
+import com.cashme.interview.eventos.EventosSimulacoes;
+import com.cashme.interview.model.Cliente;
+import com.cashme.interview.model.Simulacao;
+import com.cashme.interview.repository.ClienteRepository;
+import com.cashme.interview.repository.SimulacaoRepository;
+import com.cashme.interview.fragmentacao.Fragmentacao;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulacaoServiceTest {
+
+    @Mock
+    private SimulacaoRepository simulacaoRepository;
+
+    @Mock
+    private ClienteRepository clienteRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheRespostas cacheRespostas;
+
+    @Mock
+    private EventosSimulacoes eventosSimulacoes;
+
+    @Spy
+    private Fragmentacao fragmentacao = new Fragmentacao(1, mock(PlatformTransactionManager.class), tarefa -> tarefa);
+
+    @InjectMocks
+    private SimulacaoService service;
+
+    @Test
+    void exportarZip_DeveGerarUmArquivoPorCliente() throws Exception {
+        Cliente joao = cliente(1L, "João Silva", "12345678900");
+        Cliente maria = cliente(2L, "Maria Souza", "98765432100");
+        Simulacao sim1 = simulacao(10L, joao, "300000.00");
+        Simulacao sim2 = simulacao(11L, joao, "500000.00");
+        Simulacao sim3 = simulacao(12L, maria, "100000.00");
+
+        List<Long> ids = List.of(1L, 2L);
+        when(simulacaoRepository.streamByClienteIdIn(ids)).thenReturn(Stream.of(sim1, sim2, sim3));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.exportarZip(ids, false, saida);
+
+        Map<String, String> arquivos = lerZip(saida.toByteArray());
+        assertThat(arquivos.keySet()).containsExactly("simulacoes_cliente_1.csv", "simulacoes_cliente_2.csv");
+        assertThat(arquivos.get("simulacoes_cliente_1.csv")).isEqualTo(service.gerarRelatorioCsv(List.of(sim1, sim2)));
+        assertThat(arquivos.get("simulacoes_cliente_2.csv")).isEqualTo(service.gerarRelatorioCsv(List.of(sim3)));
+
+        verify(entityManager, times(3)).detach(any(Simulacao.class));
+        verify(simulacaoRepository, never()).countByClienteIdIn(any());
+    }
+
+    @Test
+    void exportarZip_EmTxt_DeveUsarTotaisDaConsultaAgrupada() throws Exception {
+        Cliente joao = cliente(1L, "João Silva", "12345678900");
+        Simulacao sim1 = simulacao(10L, joao, "300000.00");
+        Simulacao sim2 = simulacao(11L, joao, "500000.00");
+
+        List<Long> ids = List.of(1L, 3L);
+        when(simulacaoRepository.countByClienteIdIn(ids)).thenReturn(List.<Object[]>of(new Object[]{1L, 2L}));
+        when(simulacaoRepository.streamByClienteIdIn(ids)).thenReturn(Stream.of(sim1, sim2));
+
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        service.exportarZip(ids, true, saida);
+
+        Map<String, String> arquivos = lerZip(saida.toByteArray());
+        assertThat(arquivos).containsOnlyKeys("simulacoes_cliente_1.txt");
+        assertThat(arquivos.get("simulacoes_cliente_1.txt")).isEqualTo(service.gerarRelatorioTxt(List.of(sim1, sim2)));
+    }
+
+    @Test
+    void validarLoteExportacao_SemClientes_DeveRetornarBadRequest() {
+        assertThatThrownBy(() -> service.validarLoteExportacao(List.of()))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void validarLoteExportacao_DeveRemoverRepetidos() {
+        assertThat(service.validarLoteExportacao(List.of(3L, 1L, 3L))).containsExactly(3L, 1L);
+    }
+
+    @Test
+    void criarSimulacoes_DeveUsarReferenciaDoClienteSemCarregaLo() {
+        Cliente referencia = cliente(1L, null, null);
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(null, new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+        when(clienteRepository.registrarSimulacoes(1L, 2)).thenReturn(Optional.of(7L));
+        when(clienteRepository.getReferenceById(1L)).thenReturn(referencia);
+        when(simulacaoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<Simulacao> criadas = service.criarSimulacoes(1L, List.of(requisicao, requisicao));
+
+        assertThat(criadas).extracting(Simulacao::getOrdemNoCliente).containsExactly(6L, 7L);
+        assertThat(criadas).hasSize(2).allSatisfy(sim -> {
+            assertThat(sim.getCliente()).isSameAs(referencia);
+            assertThat(sim.getDataHora()).isNotNull();
+            assertThat(sim.getQuantidadeMeses()).isEqualTo(150);
+        });
+        verify(clienteRepository, never()).findById(any());
+        verify(simulacaoRepository).flush();
+        verify(cacheRespostas).invalidarClienteAposCommit(1L);
+        verify(eventosSimulacoes).publicarAposCommit(1L, criadas);
+    }
+
+    @Test
+    void buscarNovasDoCliente_DeveBuscarAsPosterioresAoUltimoEventoAteOLimite() {
+        Simulacao nova = simulacao(8L, cliente(1L, null, null), "300000.00");
+        when(clienteRepository.findSimulacoesRegistradasById(1L)).thenReturn(Optional.of(6L));
+        when(simulacaoRepository.findByClienteIdAndOrdemNoClienteGreaterThanOrderByOrdemNoClienteAsc(1L, 5L,
+                Limit.of(100))).thenReturn(List.of(nova));
+
+        assertThat(service.buscarNovasDoCliente(1L, 5L, 100))
+                .isEqualTo(new EventosSimulacoes.Reenvio(5L, List.of(nova)));
+        verify(simulacaoRepository, times(1))
+                .findByClienteIdAndOrdemNoClienteGreaterThanOrderByOrdemNoClienteAsc(any(), any(), any());
+    }
+
+    @Test
+    void buscarNovasDoCliente_SemUltimoEventoOuAlemDoUltimo_DeveComecarNaUltimaRegistrada() {
+        when(clienteRepository.findSimulacoesRegistradasById(1L)).thenReturn(Optional.of(6L));
+
+        assertThat(service.buscarNovasDoCliente(1L, null, 100))
+                .isEqualTo(new EventosSimulacoes.Reenvio(6L, List.of()));
+        assertThat(service.buscarNovasDoCliente(1L, 9L, 100))
+                .isEqualTo(new EventosSimulacoes.Reenvio(6L, List.of()));
+        verifyNoInteractions(simulacaoRepository);
+    }
+
+    @Test
+    void buscarNovasDoCliente_ComClienteInexistente_DeveRetornarNotFound() {
+        when(clienteRepository.findSimulacoesRegistradasById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.buscarNovasDoCliente(99L, null, 100))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void criarSimulacao_ComClienteInexistente_DeveRetornarNotFound() {
+        SimulacaoRequisicao requisicao = new SimulacaoRequisicao(null, new BigDecimal("300000.00"),
+                new BigDecimal("1000000.00"), 150, new BigDecimal("2.00"));
+        when(clienteRepository.registrarSimulacoes(99L, 1)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.criarSimulacao(99L, requisicao))
+                .isInstanceOf(ResponseStatusException.class)
+                .extracting(e -> ((ResponseStatusException) e).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        verifyNoInteractions(simulacaoRepository);
+    }
+
+    private static Cliente cliente(Long id, String nome, String cpf) {
+        Cliente cliente = new Cliente();
+        cliente.setId(id);
+        cliente.setNome(nome);
+        cliente.setCpf(cpf);
+        return cliente;
+    }
+
+    private static Simulacao simulacao(Long id, Cliente cliente, String valor) {
+        Simulacao simulacao = new Simulacao();
+        simulacao.setId(id);
+        simulacao.setCliente(cliente);
+        simulacao.setDataHora(LocalDateTime.of(2024, 6, 15, 10, 30, 26));
+        simulacao.setValorSolicitado(new BigDecimal(valor));
+        simulacao.setValorGarantia(new BigDecimal("1000000.00"));
+        simulacao.setQuantidadeMeses(150);
+        simulacao.setTaxaJurosMensal(new BigDecimal("2.00"));
+        return simulacao;
+    }
+
+    private static Map<String, String> lerZip(byte[] conteudo) throws Exception {
+        Map<String, String> arquivos = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(conteudo), StandardCharsets.UTF_8)) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                arquivos.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        return arquivos;
+    }
+}